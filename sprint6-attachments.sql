@@ -45,8 +45,10 @@ CREATE TABLE IF NOT EXISTS `integrated`.`board` (
     `visibility` ENUM('PUBLIC', 'PRIVATE') NOT NULL DEFAULT 'PRIVATE',
     `createdOn` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     `updatedOn` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    `changeVersion` BIGINT NOT NULL DEFAULT 0,
     PRIMARY KEY (`boardId`),
     INDEX `fk_board_user` (`oid` ASC) VISIBLE,
+    INDEX `idx_board_created` (`createdOn` ASC, `boardId` ASC) VISIBLE,
     CONSTRAINT `fk_board_user`
     FOREIGN KEY (`oid`)
     REFERENCES `integrated`.`users` (`oid`))
@@ -54,6 +56,25 @@ CREATE TABLE IF NOT EXISTS `integrated`.`board` (
     DEFAULT CHARACTER SET = utf8mb4
     COLLATE = utf8mb4_0900_ai_ci;
 
+-- Boards created before the change versions: CREATE TABLE IF NOT EXISTS leaves the existing table as it is,
+-- so the column is added here when it is missing
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.COLUMNS
+               WHERE TABLE_SCHEMA = 'integrated' AND TABLE_NAME = 'board' AND COLUMN_NAME = 'changeVersion') = 0,
+              'ALTER TABLE `integrated`.`board` ADD COLUMN `changeVersion` BIGINT NOT NULL DEFAULT 0 AFTER `updatedOn`',
+              'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- Same for the index behind the keyset pagination of the board list
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = 'integrated' AND TABLE_NAME = 'board' AND INDEX_NAME = 'idx_board_created') = 0,
+              'CREATE INDEX `idx_board_created` ON `integrated`.`board` (`createdOn` ASC, `boardId` ASC)',
+              'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
 
 -- -----------------------------------------------------
 -- Table `integrated`.`board_collaborators`
@@ -89,7 +110,7 @@ CREATE TABLE IF NOT EXISTS `integrated`.`statusv3` (
     `createdOn` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     `updatedOn` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     PRIMARY KEY (`statusId`),
-    INDEX `fk_statusv3_board1_idx` (`boardId` ASC) VISIBLE,
+    INDEX `idx_statusv3_board_name` (`boardId` ASC, `statusName` ASC) VISIBLE,
     CONSTRAINT `fk_statusv3_board1`
     FOREIGN KEY (`boardId`)
     REFERENCES `integrated`.`board` (`boardId`))
@@ -98,6 +119,22 @@ CREATE TABLE IF NOT EXISTS `integrated`.`statusv3` (
     DEFAULT CHARACTER SET = utf8mb4
     COLLATE = utf8mb4_0900_ai_ci;
 
+-- Tables created before the composite index get it here, and lose the boardId index it replaces
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = 'integrated' AND TABLE_NAME = 'statusv3' AND INDEX_NAME = 'idx_statusv3_board_name') = 0,
+              'CREATE INDEX `idx_statusv3_board_name` ON `integrated`.`statusv3` (`boardId` ASC, `statusName` ASC)',
+              'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = 'integrated' AND TABLE_NAME = 'statusv3' AND INDEX_NAME = 'fk_statusv3_board1_idx') > 0,
+              'DROP INDEX `fk_statusv3_board1_idx` ON `integrated`.`statusv3`',
+              'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
 
 -- -----------------------------------------------------
 -- Table `integrated`.`taskv3`
@@ -114,7 +151,7 @@ CREATE TABLE IF NOT EXISTS `integrated`.`taskv3` (
     PRIMARY KEY (`id`),
     UNIQUE INDEX `id_UNIQUE` (`id` ASC) VISIBLE,
     INDEX `fk_taskv3_taskStatus_idx` (`taskStatusId` ASC) VISIBLE,
-    INDEX `fk_taskv3_board1_idx` (`boardId` ASC) VISIBLE,
+    INDEX `idx_taskv3_board_status` (`boardId` ASC, `taskStatusId` ASC) VISIBLE,
     CONSTRAINT `fk_taskv3_board1`
     FOREIGN KEY (`boardId`)
     REFERENCES `integrated`.`board` (`boardId`),
@@ -126,6 +163,22 @@ CREATE TABLE IF NOT EXISTS `integrated`.`taskv3` (
     DEFAULT CHARACTER SET = utf8mb4
     COLLATE = utf8mb4_0900_ai_ci;
 
+-- Same for the composite index of taskv3
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = 'integrated' AND TABLE_NAME = 'taskv3' AND INDEX_NAME = 'idx_taskv3_board_status') = 0,
+              'CREATE INDEX `idx_taskv3_board_status` ON `integrated`.`taskv3` (`boardId` ASC, `taskStatusId` ASC)',
+              'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = 'integrated' AND TABLE_NAME = 'taskv3' AND INDEX_NAME = 'fk_taskv3_board1_idx') > 0,
+              'DROP INDEX `fk_taskv3_board1_idx` ON `integrated`.`taskv3`',
+              'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
 
 -- -----------------------------------------------------
 -- Table `integrated`.`file_storage`
@@ -135,6 +188,7 @@ CREATE TABLE IF NOT EXISTS `integrated`.`file_storage` (
                                                            `name` VARCHAR(255) NOT NULL,
     `type` VARCHAR(100) NOT NULL,
     `path` VARCHAR(500) NOT NULL,
+    `content_hash` CHAR(64) NULL DEFAULT NULL,
     `added_on` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     `task_id` INT NOT NULL,
     PRIMARY KEY (`id`),
@@ -147,6 +201,93 @@ CREATE TABLE IF NOT EXISTS `integrated`.`file_storage` (
     DEFAULT CHARACTER SET = utf8mb4
     COLLATE = utf8mb4_0900_ai_ci;
 
+-- Databases created before the blob store need the column added by hand:
+-- ALTER TABLE `integrated`.`file_storage` ADD COLUMN `content_hash` CHAR(64) NULL DEFAULT NULL AFTER `path`;
+
+
+-- -----------------------------------------------------
+-- Table `integrated`.`file_blob`
+-- One row per distinct attachment content, stored once under task-attachments/blobs.
+-- ref_count is the number of file_storage rows with that content_hash
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS `integrated`.`file_blob` (
+    `hash` CHAR(64) NOT NULL,
+    `size` BIGINT NOT NULL,
+    `ref_count` INT NOT NULL DEFAULT 0,
+    `created_on` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    `updated_on` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (`hash`),
+    INDEX `idx_file_blob_unreferenced` (`ref_count` ASC, `updated_on` ASC) VISIBLE)
+    ENGINE = InnoDB
+    DEFAULT CHARACTER SET = utf8mb4
+    COLLATE = utf8mb4_0900_ai_ci;
+
+-- -----------------------------------------------------
+-- Table `integrated`.`file_deletion`
+-- Outbox of files to remove from disk, written in the transaction that deletes their
+-- file_storage rows and processed after commit by FileDeletionOutbox
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS `integrated`.`file_deletion` (
+    `id` BIGINT NOT NULL,
+    `path` VARCHAR(500) NULL DEFAULT NULL,
+    `content_hash` CHAR(64) NULL DEFAULT NULL,
+    `attempts` INT NOT NULL DEFAULT 0,
+    `next_attempt_at` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    `last_error` VARCHAR(500) NULL DEFAULT NULL,
+    `created_on` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (`id`),
+    INDEX `idx_file_deletion_due` (`next_attempt_at` ASC) VISIBLE)
+    ENGINE = InnoDB
+    DEFAULT CHARACTER SET = utf8mb4
+    COLLATE = utf8mb4_0900_ai_ci;
+
+-- -----------------------------------------------------
+-- Table `integrated`.`board_change`
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS `integrated`.`board_change` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT,
+    `boardId` VARCHAR(10) NOT NULL,
+    `version` BIGINT NOT NULL,
+    `entityType` ENUM('TASK', 'STATUS') NOT NULL,
+    `entityId` INT NOT NULL,
+    `deleted` TINYINT(1) NOT NULL DEFAULT 0,
+    `changedOn` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (`id`),
+    INDEX `idx_board_change_version` (`boardId` ASC, `version` ASC) VISIBLE,
+    CONSTRAINT `fk_board_change_board`
+    FOREIGN KEY (`boardId`)
+    REFERENCES `integrated`.`board` (`boardId`))
+    ENGINE = InnoDB
+    AUTO_INCREMENT = 1
+    DEFAULT CHARACTER SET = utf8mb4
+    COLLATE = utf8mb4_0900_ai_ci;
+
+
+-- -----------------------------------------------------
+-- Table `integrated`.`id_generator`
+-- Ids of statusv3, taskv3, file_storage, board_change and file_deletion are handed out by the
+-- application in blocks of 50, so their inserts can be batched
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS `integrated`.`id_generator` (
+    `entity` VARCHAR(50) NOT NULL,
+    `next_val` BIGINT NULL DEFAULT NULL,
+    PRIMARY KEY (`entity`))
+    ENGINE = InnoDB
+    DEFAULT CHARACTER SET = utf8mb4
+    COLLATE = utf8mb4_0900_ai_ci;
+
+-- A block starts just under next_val, seeding 100 above the current maximum keeps it clear of existing rows
+INSERT IGNORE INTO `integrated`.`id_generator` (`entity`, `next_val`)
+SELECT 'statusv3', COALESCE(MAX(`statusId`), 0) + 100 FROM `integrated`.`statusv3`
+UNION ALL
+SELECT 'taskv3', COALESCE(MAX(`id`), 0) + 100 FROM `integrated`.`taskv3`
+UNION ALL
+SELECT 'file_storage', COALESCE(MAX(`id`), 0) + 100 FROM `integrated`.`file_storage`
+UNION ALL
+SELECT 'board_change', COALESCE(MAX(`id`), 0) + 100 FROM `integrated`.`board_change`
+UNION ALL
+SELECT 'file_deletion', COALESCE(MAX(`id`), 0) + 100 FROM `integrated`.`file_deletion`;
+
 USE `integrated` ;
 
 -- -----------------------------------------------------
@@ -172,6 +313,9 @@ DELETE FROM statusv3 WHERE boardId = boardIdToDelete;
 -- Then delete all collaborators associated with the board
 DELETE FROM board_collaborators WHERE boardId = boardIdToDelete;
 
+-- Then delete the change log of the board
+DELETE FROM board_change WHERE boardId = boardIdToDelete;
+
 -- Finally delete the board
 DELETE FROM board WHERE boardId = boardIdToDelete;
 END$$
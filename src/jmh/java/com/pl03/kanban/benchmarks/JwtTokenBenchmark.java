@@ -0,0 +1,67 @@
+package com.pl03.kanban.benchmarks;
+
+import com.pl03.kanban.user_entities.User;
+import com.pl03.kanban.utils.JwtTokenUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Token validation and claim parsing, done on every authenticated request.
+// The cached benchmarks repeat one token like a client does, the uncached ones run with a cache of size zero.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtTokenBenchmark {
+
+    // Same shape as jwt.secret in application.properties
+    private static final String SECRET = "N7KgseMPtJ26AEved0ahUKEwj4563eioyFAxUyUGwGHbTODx0Q4dUDCBA";
+
+    private JwtTokenUtils jwtTokenUtils;
+    private JwtTokenUtils uncachedJwtTokenUtils;
+    private String accessToken;
+    private String tamperedToken;
+
+    @Setup
+    public void setUp() {
+        jwtTokenUtils = new JwtTokenUtils(SECRET, 1800000L, 86400000L, 100000, new SimpleMeterRegistry());
+        uncachedJwtTokenUtils = new JwtTokenUtils(SECRET, 1800000L, 86400000L, 0, new SimpleMeterRegistry());
+
+        User user = User.builder()
+                .oid("6f0a4c2e-9d1b-4c6a-8f4e-2b7d5e9a1c3f")
+                .name("Benchmark User")
+                .username("benchmark")
+                .email("benchmark@example.com")
+                .password("unused")
+                .role("STUDENT")
+                .build();
+        accessToken = jwtTokenUtils.generateAccessToken(user);
+        // Flip a character of the signature so the check fails at the last step
+        int last = accessToken.length() - 2;
+        tamperedToken = accessToken.substring(0, last) + (accessToken.charAt(last) == 'A' ? 'B' : 'A') + accessToken.substring(last + 1);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtTokenUtils.validateToken(accessToken);
+    }
+
+    @Benchmark
+    public Map<String, Object> getClaimsFromToken() {
+        return jwtTokenUtils.getClaimsFromToken(accessToken);
+    }
+
+    @Benchmark
+    public Map<String, Object> getClaimsFromTokenUncached() {
+        return uncachedJwtTokenUtils.getClaimsFromToken(accessToken);
+    }
+
+    @Benchmark
+    public boolean validateTamperedToken() {
+        return jwtTokenUtils.validateToken(tamperedToken);
+    }
+}
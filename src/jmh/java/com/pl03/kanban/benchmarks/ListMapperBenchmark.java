@@ -0,0 +1,55 @@
+package com.pl03.kanban.benchmarks;
+
+import com.pl03.kanban.dtos.StatusDto;
+import com.pl03.kanban.kanban_entities.Board;
+import com.pl03.kanban.kanban_entities.StatusV3;
+import com.pl03.kanban.mappers.StatusMapper;
+import com.pl03.kanban.mappers.StatusMapperImpl;
+import com.pl03.kanban.utils.ListMapper;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// ListMapper.mapList on statuses, a board usually has a handful and at most a few hundred
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ListMapperBenchmark {
+
+    @Param({"4", "50", "500"})
+    private int statuses;
+
+    private List<StatusV3> statusList;
+    private ListMapper listMapper;
+    private ModelMapper modelMapper;
+    private StatusMapper statusMapper;
+
+    @Setup
+    public void setUp() {
+        Board board = new Board();
+        board.setId("bench00001");
+        statusList = new ArrayList<>(statuses);
+        for (int i = 1; i <= statuses; i++) {
+            statusList.add(new StatusV3(i, "Status " + i, "Description of status " + i, board));
+        }
+        listMapper = new ListMapper();
+        modelMapper = new ModelMapper();
+        statusMapper = new StatusMapperImpl();
+    }
+
+    @Benchmark
+    public List<StatusDto> mapList() {
+        return listMapper.mapList(statusList, StatusDto.class, modelMapper);
+    }
+
+    @Benchmark
+    public List<StatusDto> statusMapper() {
+        return statusMapper.toStatusDtos(statusList);
+    }
+}
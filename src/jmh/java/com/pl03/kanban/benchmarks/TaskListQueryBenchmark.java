@@ -0,0 +1,123 @@
+package com.pl03.kanban.benchmarks;
+
+import com.pl03.kanban.dtos.GetAllTaskDto;
+import com.pl03.kanban.kanban_entities.TaskV3;
+import com.pl03.kanban.kanban_entities.repositories.TaskV3Repository;
+import com.pl03.kanban.utils.ListMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// The task list query of getAllTasks on one board, before and after the DTO projection: TaskV3 entities with their
+// eager status, board and owner mapped by ModelMapper, against TaskV3Repository's constructor expression.
+// Runs on an in-memory H2 database in MySQL mode with the perf profile's schema, so it needs no MySQL.
+// Allocation per call is reported with: mvn -Pbenchmark compile exec:exec -Djmh.args="TaskListQueryBenchmark -prof gc"
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskListQueryBenchmark {
+
+    private static final String BOARD_ID = "bench00001";
+    private static final String OWNER_OID = "00000000-0000-0000-0000-000000000001";
+    private static final String[] STATUS_NAMES = {"No Status", "To Do", "Doing", "Done"};
+
+    // The query of the derived findByBoardId that getAllTasks used before the projection
+    private static final String SELECT_TASK_ENTITIES = "SELECT t FROM TaskV3 t WHERE t.board.id = :boardId";
+    private static final String SELECT_TASK_DTOS = TaskV3Repository.SELECT_GET_ALL_TASK_DTO + "WHERE t.board.id = :boardId";
+
+    @Param({"1000", "10000"})
+    private int tasks;
+
+    private LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+    private EntityManagerFactory entityManagerFactory;
+    private ListMapper listMapper;
+    private ModelMapper modelMapper;
+
+    @Setup
+    public void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:tasklist" + tasks + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1",
+                "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("perf/kanban-schema.sql")).execute(dataSource);
+        seed(new JdbcTemplate(dataSource));
+
+        // Same vendor adapter as the application's entity managers, the schema is never generated
+        HibernateJpaVendorAdapter vendorAdapter = new HibernateJpaVendorAdapter();
+        vendorAdapter.setGenerateDdl(false);
+        entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactoryBean.setDataSource(dataSource);
+        entityManagerFactoryBean.setJpaVendorAdapter(vendorAdapter);
+        entityManagerFactoryBean.setPackagesToScan("com.pl03.kanban.kanban_entities");
+        entityManagerFactoryBean.afterPropertiesSet();
+        entityManagerFactory = entityManagerFactoryBean.getObject();
+
+        listMapper = new ListMapper();
+        modelMapper = new ModelMapper();
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManagerFactoryBean.destroy();
+    }
+
+    // Each call gets its own persistence context, like a request
+    @Benchmark
+    public List<GetAllTaskDto> entitiesWithModelMapper() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            List<TaskV3> taskList = entityManager.createQuery(SELECT_TASK_ENTITIES, TaskV3.class)
+                    .setParameter("boardId", BOARD_ID)
+                    .getResultList();
+            return listMapper.mapList(taskList, GetAllTaskDto.class, modelMapper);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    @Benchmark
+    public List<GetAllTaskDto> dtoProjection() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return entityManager.createQuery(SELECT_TASK_DTOS, GetAllTaskDto.class)
+                    .setParameter("boardId", BOARD_ID)
+                    .getResultList();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private void seed(JdbcTemplate jdbc) {
+        jdbc.update("INSERT INTO users (oid, name, username, email) VALUES (?, ?, ?, ?)",
+                OWNER_OID, "Bench Owner", "bench", "bench@example.com");
+        jdbc.update("INSERT INTO kanban_entities.board (boardId, name, oid, visibility) VALUES (?, ?, ?, ?)",
+                BOARD_ID, "Benchmark board", OWNER_OID, "PRIVATE");
+
+        List<Object[]> statuses = new ArrayList<>(STATUS_NAMES.length);
+        for (int i = 0; i < STATUS_NAMES.length; i++) {
+            statuses.add(new Object[]{i + 1, STATUS_NAMES[i], BOARD_ID});
+        }
+        jdbc.batchUpdate("INSERT INTO kanban_entities.statusv3 (statusId, statusName, boardId) VALUES (?, ?, ?)", statuses);
+
+        List<Object[]> rows = new ArrayList<>(tasks);
+        for (int i = 1; i <= tasks; i++) {
+            rows.add(new Object[]{i, "Task " + i, "Synthetic task for the list benchmark", "assignee " + i % 10,
+                    i % STATUS_NAMES.length + 1, BOARD_ID});
+        }
+        jdbc.batchUpdate("INSERT INTO kanban_entities.taskv3 (id, taskTitle, taskDescription, taskAssignees, taskStatusId, boardId) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", rows);
+    }
+}
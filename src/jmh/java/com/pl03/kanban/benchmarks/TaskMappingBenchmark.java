@@ -0,0 +1,90 @@
+package com.pl03.kanban.benchmarks;
+
+import com.pl03.kanban.dtos.AddEditTaskDto;
+import com.pl03.kanban.dtos.GetAllTaskDto;
+import com.pl03.kanban.kanban_entities.Board;
+import com.pl03.kanban.kanban_entities.StatusV3;
+import com.pl03.kanban.kanban_entities.TaskV3;
+import com.pl03.kanban.mappers.TaskMapper;
+import com.pl03.kanban.mappers.TaskMapperImpl;
+import com.pl03.kanban.utils.ListMapper;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// ModelMapper (set up with the type maps TaskV3ServiceImpl used to register) against the generated TaskMapper.
+// Add -Djmh.args="-prof gc" to see the allocation rate of each side.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskMappingBenchmark {
+
+    @Param({"1000", "10000"})
+    private int tasks;
+
+    private List<TaskV3> taskList;
+    private ModelMapper modelMapper;
+    private ListMapper listMapper;
+    private TaskMapper taskMapper;
+
+    @Setup
+    public void setUp() {
+        Board board = new Board();
+        board.setId("bench00001");
+        List<StatusV3> statuses = List.of(
+                new StatusV3(1, "No Status", "A status has not been assigned", board),
+                new StatusV3(2, "To Do", "The task is included in the project", board),
+                new StatusV3(3, "Doing", "The task is being worked on", board),
+                new StatusV3(4, "Done", "The task has been completed", board));
+
+        taskList = new ArrayList<>(tasks);
+        for (int i = 1; i <= tasks; i++) {
+            TaskV3 task = new TaskV3();
+            task.setId(i);
+            task.setTitle("Task " + i);
+            task.setDescription("Description of task " + i);
+            task.setAssignees("assignee " + (i % 10));
+            task.setStatusV3(statuses.get(i % statuses.size()));
+            task.setBoard(board);
+            taskList.add(task);
+        }
+
+        modelMapper = new ModelMapper();
+        modelMapper.typeMap(TaskV3.class, GetAllTaskDto.class).addMappings(mapper ->
+                mapper.map(src -> src.getStatusV3().getName(), GetAllTaskDto::setStatus));
+        modelMapper.typeMap(TaskV3.class, AddEditTaskDto.class).addMappings(mapper ->
+                mapper.map(src -> src.getStatusV3().getName(), AddEditTaskDto::setStatus));
+        listMapper = new ListMapper();
+        taskMapper = new TaskMapperImpl();
+    }
+
+    @Benchmark
+    public List<GetAllTaskDto> modelMapperGetAllTaskDto() {
+        return listMapper.mapList(taskList, GetAllTaskDto.class, modelMapper);
+    }
+
+    @Benchmark
+    public List<GetAllTaskDto> mapStructGetAllTaskDto() {
+        return taskMapper.toGetAllTaskDtos(taskList);
+    }
+
+    @Benchmark
+    public List<AddEditTaskDto> modelMapperAddEditTaskDto() {
+        return listMapper.mapList(taskList, AddEditTaskDto.class, modelMapper);
+    }
+
+    @Benchmark
+    public List<AddEditTaskDto> mapStructAddEditTaskDto() {
+        List<AddEditTaskDto> result = new ArrayList<>(taskList.size());
+        for (TaskV3 task : taskList) {
+            result.add(taskMapper.toAddEditTaskDto(task));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,70 @@
+package com.pl03.kanban.services.impl;
+
+import com.pl03.kanban.dtos.BoardResponse;
+import com.pl03.kanban.kanban_entities.Board;
+import com.pl03.kanban.kanban_entities.BoardCollaborators;
+import com.pl03.kanban.kanban_entities.Users;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// BoardServiceImpl.createBoardResponse for boards with many collaborators, a share of them with pending invitations.
+// Lives in the service package to reach the package-private method.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BoardResponseBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int collaborators;
+
+    private Board board;
+
+    @Setup
+    public void setUp() {
+        Users owner = new Users();
+        owner.setOid("00000000-0000-0000-0000-000000000000");
+        board = new Board();
+        board.setId("bench00001");
+        board.setName("Benchmark board");
+        board.setUser(owner);
+        board.setVisibility(Board.Visibility.PRIVATE);
+
+        Timestamp addedOn = new Timestamp(System.currentTimeMillis());
+        List<BoardCollaborators> boardCollaborators = new ArrayList<>(collaborators);
+        for (int i = 0; i < collaborators; i++) {
+            Users user = new Users();
+            user.setOid(String.format("00000000-0000-0000-0000-%012d", i + 1));
+            BoardCollaborators.AccessRight accessRight = i % 4 == 0 ? BoardCollaborators.AccessRight.PENDING
+                    : i % 2 == 0 ? BoardCollaborators.AccessRight.WRITE : BoardCollaborators.AccessRight.READ;
+            boardCollaborators.add(BoardCollaborators.builder()
+                    .board(board)
+                    .user(user)
+                    .accessRight(accessRight)
+                    .addedOn(addedOn)
+                    .name("Collaborator " + i)
+                    .email("collaborator" + i + "@example.com")
+                    .build());
+            if (accessRight == BoardCollaborators.AccessRight.PENDING) {
+                CollaboratorServiceImpl.tempAccessRights.put(board.getId() + "-" + user.getOid(), BoardCollaborators.AccessRight.WRITE);
+            }
+        }
+        board.setCollaborators(boardCollaborators);
+    }
+
+    @TearDown
+    public void tearDown() {
+        CollaboratorServiceImpl.tempAccessRights.clear();
+    }
+
+    @Benchmark
+    public BoardResponse createBoardResponse() {
+        return BoardServiceImpl.createBoardResponse(board, "Benchmark owner");
+    }
+}
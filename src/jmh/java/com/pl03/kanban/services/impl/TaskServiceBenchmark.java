@@ -0,0 +1,153 @@
+package com.pl03.kanban.services.impl;
+
+import com.pl03.kanban.dtos.AddEditTaskDto;
+import com.pl03.kanban.exceptions.ErrorResponse;
+import com.pl03.kanban.kanban_entities.Board;
+import com.pl03.kanban.kanban_entities.FileStorage;
+import com.pl03.kanban.kanban_entities.StatusV3;
+import com.pl03.kanban.kanban_entities.TaskV3;
+import com.pl03.kanban.kanban_entities.repositories.StatusV3Repository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Request-side work of TaskV3ServiceImpl that runs without the database: the attachment diff of updateTask
+// and validateTaskFields. Lives in the service package to reach the package-private methods.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskServiceBenchmark {
+
+    private static final String BOARD_ID = "bench00001";
+
+    private TaskV3ServiceImpl taskV3Service;
+    private AddEditTaskDto validTask;
+    private AddEditTaskDto invalidTask;
+
+    @Setup
+    public void setUp() {
+        Board board = new Board();
+        board.setId(BOARD_ID);
+
+        // Statuses are served from the catalog, the repository is only hit once to fill it
+        List<StatusV3> statuses = List.of(
+                new StatusV3(1, "No Status", "A status has not been assigned", board),
+                new StatusV3(2, "To Do", "The task is included in the project", board),
+                new StatusV3(3, "Doing", "The task is being worked on", board),
+                new StatusV3(4, "Done", "The task has been completed", board));
+        StatusV3Repository statusV3Repository = (StatusV3Repository) Proxy.newProxyInstance(
+                StatusV3Repository.class.getClassLoader(), new Class<?>[]{StatusV3Repository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findByBoardId")) {
+                        return statuses;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        StatusCatalog statusCatalog = new StatusCatalog(statusV3Repository, new SimpleMeterRegistry(), 100, Duration.ofHours(1));
+        taskV3Service = new TaskV3ServiceImpl(null, statusV3Repository, null, null, null, null,
+                null, null, null, statusCatalog, null);
+
+        validTask = new AddEditTaskDto();
+        validTask.setTitle("  Prepare the sprint review  ");
+        validTask.setDescription("Collect the demo notes and the burndown chart");
+        validTask.setAssignees("Somchai, Malee");
+        validTask.setStatus("3");
+
+        invalidTask = new AddEditTaskDto();
+        invalidTask.setTitle(" ");
+        invalidTask.setDescription("x".repeat(600));
+        invalidTask.setAssignees("y".repeat(40));
+        invalidTask.setStatus("99");
+    }
+
+    @Benchmark
+    public TaskV3ServiceImpl.AttachmentDiff diffAttachments(Attachments attachments) {
+        return TaskV3ServiceImpl.diffAttachments(attachments.existingFiles, attachments.newAttachments);
+    }
+
+    @Benchmark
+    public ErrorResponse validateValidTask() {
+        return taskV3Service.validateTaskFields(validTask, BOARD_ID);
+    }
+
+    @Benchmark
+    public ErrorResponse validateInvalidTask() {
+        return taskV3Service.validateTaskFields(invalidTask, BOARD_ID);
+    }
+
+    // Files already stored on the task and files in the upload, half of the upload overlaps the stored ones
+    @State(Scope.Benchmark)
+    public static class Attachments {
+        @Param({"10", "100"})
+        private int count;
+
+        private List<FileStorage> existingFiles;
+        private List<MultipartFile> newAttachments;
+
+        @Setup
+        public void setUp() {
+            TaskV3 task = new TaskV3();
+            existingFiles = new ArrayList<>(count);
+            newAttachments = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                existingFiles.add(new FileStorage((long) i, "file-" + i + ".png", "image/png", "/uploads/file-" + i + ".png", null, null, task));
+                newAttachments.add(new InMemoryFile("file-" + (i + count / 2) + ".png"));
+            }
+        }
+    }
+
+    // Only the file name is read by the diff
+    private record InMemoryFile(String originalFilename) implements MultipartFile {
+        @Override
+        public String getName() {
+            return "files";
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return originalFilename;
+        }
+
+        @Override
+        public String getContentType() {
+            return "image/png";
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return false;
+        }
+
+        @Override
+        public long getSize() {
+            return 0;
+        }
+
+        @Override
+        public byte[] getBytes() {
+            return new byte[0];
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+
+        @Override
+        public void transferTo(File dest) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
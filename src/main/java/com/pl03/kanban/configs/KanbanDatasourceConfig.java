@@ -2,6 +2,7 @@ package com.pl03.kanban.configs;
 
 import com.zaxxer.hikari.HikariDataSource;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
@@ -15,6 +16,8 @@ import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 
 @Configuration
@@ -44,10 +47,18 @@ public class KanbanDatasourceConfig {
     @Bean(name = "kanbanEntityManager")
     @Primary
     public LocalContainerEntityManagerFactoryBean kanbanEntityManagerFactory(
-            EntityManagerFactoryBuilder builder) {
+            EntityManagerFactoryBuilder builder,
+            @Value("${kanban.jpa.batch-size:50}") int batchSize) {
+        // The builder bean comes from UserDatasourceConfig, so spring.jpa.properties never reach this factory.
+        // Hibernate settings for the kanban schema are set here instead.
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("hibernate.jdbc.batch_size", batchSize);
+        properties.put("hibernate.order_updates", true);
+        properties.put("hibernate.order_inserts", true);
         return builder
                 .dataSource(kanbanDataSource())
                 .packages("com.pl03.kanban.kanban_entities")
+                .properties(properties)
                 .build();
     }
 
@@ -2,15 +2,20 @@ package com.pl03.kanban.controllers;
 
 import com.pl03.kanban.dtos.CollaboratorRequest;
 import com.pl03.kanban.dtos.CollaboratorResponse;
-import com.pl03.kanban.utils.JwtTokenUtils;
+import com.pl03.kanban.dtos.CursorPage;
 import com.pl03.kanban.dtos.BoardRequest;
 import com.pl03.kanban.dtos.BoardResponse;
+import com.pl03.kanban.dtos.BoardChangesDto;
+import com.pl03.kanban.services.BoardChangeService;
 import com.pl03.kanban.services.BoardService;
-import io.jsonwebtoken.Claims;
+import com.pl03.kanban.security.CurrentUser;
+import com.pl03.kanban.security.JwtUserDetails;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
@@ -23,77 +28,79 @@ import java.util.Map;
         "https://intproj23.sit.kmutt.ac.th",
         "https://intproj23.sit.kmutt.ac.th/pl3",
         "https://intproj23.sit.kmutt.ac.th/pl3/status",
-        "https://ip23pl3.sit.kmutt.ac.th"})
+        "https://ip23pl3.sit.kmutt.ac.th"},
+        exposedHeaders = BoardController.NEXT_CURSOR_HEADER)
 @RestController
 @RequestMapping("/v3/boards")
 public class BoardController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String DEFAULT_BOARD_PAGE_SIZE = "50";
+
     private final BoardService boardService;
-    private final JwtTokenUtils jwtTokenUtils;
+    private final BoardChangeService boardChangeService;
 
     @Autowired
-    public BoardController(BoardService boardService, JwtTokenUtils jwtTokenUtils) {
+    public BoardController(BoardService boardService, BoardChangeService boardChangeService) {
         this.boardService = boardService;
-        this.jwtTokenUtils = jwtTokenUtils;
+        this.boardChangeService = boardChangeService;
     }
 
     //body required is false because of the order of exceptions. the 403 must be caught before 400
     @PostMapping
-    public ResponseEntity<BoardResponse> createBoard(@RequestBody BoardRequest request, @RequestHeader("Authorization") String authHeader) {
-        String token = authHeader.substring(7);
-        if (!jwtTokenUtils.validateToken(token)) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        }
-
-        Claims claims = (Claims) jwtTokenUtils.getClaimsFromToken(token);
-        String ownerOid = claims.get("oid", String.class);
-        String ownerName = claims.get("name", String.class);
-
-        BoardResponse response = boardService.createBoard(request, ownerOid, ownerName);
+    public ResponseEntity<BoardResponse> createBoard(@RequestBody BoardRequest request, @CurrentUser JwtUserDetails owner) {
+        BoardResponse response = boardService.createBoard(request, owner.getOid(), owner.getName());
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<BoardResponse> getBoardById(@PathVariable String id,
-                                                      @RequestHeader(value = "Authorization", required = false) String authHeader) {
-        String requesterOid = null;
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-            if (jwtTokenUtils.validateToken(token)) {
-                requesterOid = getUserIdFromToken(token);
-            }
-        }
-
+                                                      @CurrentUser String requesterOid) {
         BoardResponse response = boardService.getBoardById(id, requesterOid);
         return ResponseEntity.ok(response);
     }
 
     @GetMapping
-    public ResponseEntity<List<BoardResponse>> getAllBoards(@RequestHeader(value = "Authorization", required = false) String authHeader) {
-        String requesterOid = null;
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-            if (jwtTokenUtils.validateToken(token)) {
-                requesterOid = getUserIdFromToken(token);
-            }
+    public ResponseEntity<List<BoardResponse>> getAllBoards(@RequestParam(defaultValue = DEFAULT_BOARD_PAGE_SIZE) int limit,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "false") boolean all,
+                                                            @CurrentUser String requesterOid) {
+        // The whole list, as before paging, only when asked for explicitly
+        if (all) {
+            List<BoardResponse> responseList = boardService.getAllBoards(requesterOid);
+            return ResponseEntity.ok(responseList);
+        }
+
+        // Keyset page, the cursor for the next page is sent back in a header
+        CursorPage<BoardResponse> page = boardService.getBoardsPage(requesterOid, limit, cursor);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
         }
+        return response.body(page.getItems());
+    }
+
+    // Task and status ids changed since the given board version, so clients can refresh without refetching everything
+    @GetMapping("/{id}/changes")
+    public ResponseEntity<BoardChangesDto> getBoardChanges(@PathVariable String id,
+                                                           @RequestParam(defaultValue = "0") long since,
+                                                           @CurrentUser String requesterOid) {
+        BoardChangesDto changes = boardChangeService.getChangesSince(id, since, requesterOid);
+        return ResponseEntity.ok(changes);
+    }
 
-        List<BoardResponse> responseList = boardService.getAllBoards(requesterOid);
-        return ResponseEntity.ok(responseList);
+    // Server-Sent Events stream of the board's task, status and collaborator changes
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeBoardEvents(@PathVariable String id,
+                                           @CurrentUser String requesterOid) {
+        return boardChangeService.subscribe(id, requesterOid);
     }
 
     @PatchMapping("/{id}")
     public ResponseEntity<?> updateBoardVisibility(
             @PathVariable String id,
             @RequestBody(required = false) Map<String, String> updateRequest,
-            @RequestHeader("Authorization") String authHeader) {
-        String token = authHeader.substring(7);
-        if (!jwtTokenUtils.validateToken(token)) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        }
-
-        String ownerOid = getUserIdFromToken(token);
-
+            @CurrentUser String ownerOid) {
         BoardResponse response = boardService.updateBoardVisibility(id, updateRequest, ownerOid);
         return ResponseEntity.ok(response);
 
@@ -107,9 +114,4 @@ public class BoardController {
 //            return ResponseEntity.notFound().build();
 //        }
     }
-
-    private String getUserIdFromToken(String token) {
-        Map<String, Object> claims = jwtTokenUtils.getClaimsFromToken(token);
-        return (String) claims.get("oid");
-    }
 }
@@ -3,7 +3,7 @@ package com.pl03.kanban.controllers;
 import com.pl03.kanban.dtos.CollaboratorRequest;
 import com.pl03.kanban.dtos.CollaboratorResponse;
 import com.pl03.kanban.services.CollaboratorService;
-import com.pl03.kanban.utils.JwtTokenUtils;
+import com.pl03.kanban.security.CurrentUser;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -24,20 +24,17 @@ import java.util.Map;
 @RestController
 @RequestMapping("/v3/boards")
 public class CollaboratorController {
-    private final JwtTokenUtils jwtTokenUtils;
     private final CollaboratorService collaboratorService;
 
     @Autowired
-    public CollaboratorController(JwtTokenUtils jwtTokenUtils, CollaboratorService collaboratorService) {
-        this.jwtTokenUtils = jwtTokenUtils;
+    public CollaboratorController(CollaboratorService collaboratorService) {
         this.collaboratorService = collaboratorService;
     }
 
     @GetMapping("/{id}/collabs")
     public ResponseEntity<List<CollaboratorResponse>> getBoardCollaborators(
             @PathVariable String id,
-            @RequestHeader(value = "Authorization", required = false) String authHeader) {
-        String requesterOid = getRequesterOid(authHeader);
+            @CurrentUser String requesterOid) {
         List<CollaboratorResponse> collaborators = collaboratorService.getBoardCollaborators(id, requesterOid);
         return ResponseEntity.ok(collaborators);
     }
@@ -46,8 +43,7 @@ public class CollaboratorController {
     public ResponseEntity<CollaboratorResponse> getBoardCollaboratorByOid(
             @PathVariable String id,
             @PathVariable String collabOid,
-            @RequestHeader(value = "Authorization", required = false) String authHeader) {
-        String requesterOid = getRequesterOid(authHeader);
+            @CurrentUser String requesterOid) {
         CollaboratorResponse collaborator = collaboratorService.getBoardCollaboratorByOid(id, collabOid, requesterOid);
         return ResponseEntity.ok(collaborator);
     }
@@ -56,8 +52,7 @@ public class CollaboratorController {
     public ResponseEntity<CollaboratorResponse> addBoardCollaborator(
             @PathVariable String id,
             @RequestBody(required = false) CollaboratorRequest request,
-            @RequestHeader("Authorization") String authHeader) {
-        String ownerOid = getUserIdFromToken(authHeader.substring(7));
+            @CurrentUser String ownerOid) {
         CollaboratorResponse response = collaboratorService.addBoardCollaborator(id, request, ownerOid);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
@@ -66,8 +61,7 @@ public class CollaboratorController {
     public ResponseEntity<CollaboratorResponse> acceptInvitation(
             @PathVariable String id,
             @PathVariable String userOid,
-            @RequestHeader("Authorization") String authHeader) {
-        String requesterOid = getUserIdFromToken(authHeader.substring(7));
+            @CurrentUser String requesterOid) {
         CollaboratorResponse response = collaboratorService.acceptInvitation(id, userOid, requesterOid);
         return ResponseEntity.ok(response);
     }
@@ -77,8 +71,7 @@ public class CollaboratorController {
     public ResponseEntity<Void> declineInvitation(
             @PathVariable String id,
             @PathVariable String userOid,
-            @RequestHeader("Authorization") String authHeader) {
-        String requesterOid = getUserIdFromToken(authHeader.substring(7));
+            @CurrentUser String requesterOid) {
         collaboratorService.declineInvitation(id, userOid, requesterOid);
         return ResponseEntity.ok().build();
     }
@@ -88,8 +81,7 @@ public class CollaboratorController {
             @PathVariable String id,
             @PathVariable String collabOid,
             @RequestBody Map<String, String> request,
-            @RequestHeader("Authorization") String authHeader) {
-        String requesterOid = getUserIdFromToken(authHeader.substring(7));
+            @CurrentUser String requesterOid) {
         String accessRight = request.get("accessRight");
         CollaboratorResponse response = collaboratorService.updateCollaboratorAccessRight(id, collabOid, accessRight, requesterOid);
         return ResponseEntity.ok(response);
@@ -100,8 +92,7 @@ public class CollaboratorController {
             @PathVariable String id,
             @PathVariable String collabOid,
             @RequestBody Map<String, String> request,
-            @RequestHeader("Authorization") String authHeader) {
-        String requesterOid = getUserIdFromToken(authHeader.substring(7));
+            @CurrentUser String requesterOid) {
         String accessRight = request.get("accessRight");
 
         CollaboratorResponse response = collaboratorService.updatePendingInvitationAccessRight(id, collabOid, accessRight, requesterOid);
@@ -114,24 +105,8 @@ public class CollaboratorController {
     public ResponseEntity<Void> removeCollaborator(
             @PathVariable String id,
             @PathVariable String collabOid,
-            @RequestHeader("Authorization") String authHeader) {
-        String requesterOid = getUserIdFromToken(authHeader.substring(7));
+            @CurrentUser String requesterOid) {
         collaboratorService.removeCollaborator(id, collabOid, requesterOid);
         return ResponseEntity.ok().build();
     }
-
-    private String getRequesterOid(String authHeader) {
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-            if (jwtTokenUtils.validateToken(token)) {
-                return getUserIdFromToken(token);
-            }
-        }
-        return null;
-    }
-
-    private String getUserIdFromToken(String token) {
-        Map<String, Object> claims = jwtTokenUtils.getClaimsFromToken(token);
-        return (String) claims.get("oid");
-    }
 }
@@ -1,17 +1,25 @@
 package com.pl03.kanban.controllers;
 
+import com.pl03.kanban.dtos.AddEditTaskDtoWithAttachments;
+import com.pl03.kanban.dtos.AttachmentManifest;
+import com.pl03.kanban.dtos.AttachmentManifestPlan;
 import com.pl03.kanban.services.FileStorageService;
 import com.pl03.kanban.services.TaskV3Service;
 import com.pl03.kanban.services.impl.FileStorageServiceImpl;
-import com.pl03.kanban.utils.JwtTokenUtils;
+import com.pl03.kanban.security.CurrentUser;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
+import com.pl03.kanban.utils.RangeFileSender;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Map;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 @CrossOrigin(origins = {"http://localhost:5173",
         "http://intproj23.sit.kmutt.ac.th",
@@ -27,70 +35,86 @@ import java.util.Map;
 public class FileAttachmentController {
     private final FileStorageService fileStorageService;
     private final TaskV3Service taskV3Service;
-    private final JwtTokenUtils jwtTokenUtils;
     @Autowired
-    public FileAttachmentController( FileStorageService fileStorageService, TaskV3Service taskV3Service, JwtTokenUtils jwtTokenUtils) {
+    public FileAttachmentController( FileStorageService fileStorageService, TaskV3Service taskV3Service) {
         this.fileStorageService = fileStorageService;
         this.taskV3Service = taskV3Service;
-        this.jwtTokenUtils = jwtTokenUtils;
     }
 
-    @GetMapping("/{taskId}/attachments/{fileName:.+}")
-    public ResponseEntity<Resource> downloadFile(
+    // Streaming upload: each "files" part goes straight to disk as it arrives and is added to the task's attachments.
+    // Unlike PUT /{taskId}, existing attachments are kept and the limits stop the upload at the first violation.
+    @PostMapping(value = "/{taskId}/attachments", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<AddEditTaskDtoWithAttachments> uploadAttachments(
             @PathVariable String boardId,
             @PathVariable int taskId,
-            @PathVariable String fileName,
-            @RequestHeader(value = "Authorization", required = false) String authHeader) {
-
-        String userId = null;
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-            if (jwtTokenUtils.validateToken(token)) {
-                userId = getUserIdFromToken(token);
-            }
-        }
+            HttpServletRequest request,
+            @CurrentUser String userId) {
+        AddEditTaskDtoWithAttachments response = taskV3Service.uploadAttachments(boardId, taskId, request, userId);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
 
-        // Verify access to the board/task
-        taskV3Service.getTaskById(boardId, taskId, userId); // Throws exception if access is denied
+    // Manifest update, step one: the complete attachment set the client wants, by name and SHA-256. The answer lists
+    // the hashes to upload, contents the board already stores are never sent again.
+    @PostMapping(value = "/{taskId}/attachments/manifest", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<AttachmentManifestPlan> planAttachments(
+            @PathVariable String boardId,
+            @PathVariable int taskId,
+            @RequestBody AttachmentManifest manifest,
+            @CurrentUser String userId) {
+        return ResponseEntity.ok(taskV3Service.planAttachments(boardId, taskId, manifest, userId));
+    }
 
-        Resource resource = fileStorageService.loadFileAsResource(fileName, taskId);
-        String contentType = fileStorageService.getFileContentType(resource);
+    // Step two: a "manifest" part with the same JSON, then a "files" part for each missing hash.
+    // Attachments not in the manifest are deleted, the others are added or kept.
+    @PutMapping(value = "/{taskId}/attachments", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<AddEditTaskDtoWithAttachments> applyAttachmentManifest(
+            @PathVariable String boardId,
+            @PathVariable int taskId,
+            HttpServletRequest request,
+            @CurrentUser String userId) {
+        return ResponseEntity.ok(taskV3Service.applyAttachmentManifest(boardId, taskId, request, userId));
+    }
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + resource.getFilename() + "\"")
-                .body(resource);
+    // Downloads and previews answer Range requests (206, multipart/byteranges) and conditional GETs,
+    // so large attachments can be resumed or seeked without sending the whole file again
+    @GetMapping("/{taskId}/attachments/{fileName:.+}")
+    public void downloadFile(
+            @PathVariable String boardId,
+            @PathVariable int taskId,
+            @PathVariable String fileName,
+            @CurrentUser String userId,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        sendFile(boardId, taskId, fileName, userId, ContentDisposition.attachment(), request, response);
     }
 
     @GetMapping("/{taskId}/attachments/{fileName}/preview")
-    public ResponseEntity<Resource> previewFile(
+    public void previewFile(
             @PathVariable String boardId,
             @PathVariable int taskId,
             @PathVariable String fileName,
-            @RequestHeader(value = "Authorization", required = false) String authHeader) {
-
-        String userId = null;
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-            if (jwtTokenUtils.validateToken(token)) {
-                userId = getUserIdFromToken(token);
-            }
-        }
+            @CurrentUser String userId,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        sendFile(boardId, taskId, fileName, userId, ContentDisposition.inline(), request, response);
+    }
 
+    private void sendFile(String boardId, int taskId, String fileName, String userId, ContentDisposition.Builder disposition,
+                          HttpServletRequest request, HttpServletResponse response) throws IOException {
         // Verify access to the board/task
         taskV3Service.getTaskById(boardId, taskId, userId); // Throws exception if access is denied
 
         Resource resource = fileStorageService.loadFileAsResource(fileName, taskId);
-        String contentType = fileStorageService.getFileContentType(resource);
+        String contentType = fileStorageService.getFileContentType(fileName);
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                .body(resource);
+        RangeFileSender.send(request, response, resource.getFile().toPath(), contentType, contentDisposition(disposition, fileName));
     }
 
-    private String getUserIdFromToken(String token) {
-        Map<String, Object> claims = jwtTokenUtils.getClaimsFromToken(token);
-        return (String) claims.get("oid");
+    // The name comes from the path. Printable ASCII names are sent quoted, with quotes and backslashes escaped.
+    // Any other name, control characters included, is RFC 5987 encoded in filename*.
+    static String contentDisposition(ContentDisposition.Builder disposition, String fileName) {
+        boolean printableAscii = fileName.chars().allMatch(c -> c >= 0x20 && c < 0x7f);
+        return (printableAscii ? disposition.filename(fileName) : disposition.filename(fileName, StandardCharsets.UTF_8))
+                .build().toString();
     }
 }
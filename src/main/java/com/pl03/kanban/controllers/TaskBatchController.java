@@ -0,0 +1,41 @@
+package com.pl03.kanban.controllers;
+
+import com.pl03.kanban.dtos.TaskBatchOperation;
+import com.pl03.kanban.dtos.TaskBatchResult;
+import com.pl03.kanban.services.TaskV3Service;
+import com.pl03.kanban.security.CurrentUser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@CrossOrigin(origins = {"http://localhost:5173",
+        "http://intproj23.sit.kmutt.ac.th",
+        "http://intproj23.sit.kmutt.ac.th/pl3",
+        "http://intproj23.sit.kmutt.ac.th/pl3/status",
+        "http://ip23pl3.sit.kmutt.ac.th",
+        "https://intproj23.sit.kmutt.ac.th",
+        "https://intproj23.sit.kmutt.ac.th/pl3",
+        "https://intproj23.sit.kmutt.ac.th/pl3/status",
+        "https://ip23pl3.sit.kmutt.ac.th"})
+@RestController
+@RequestMapping("/v3/boards/{boardId}")
+public class TaskBatchController {
+    private final TaskV3Service taskV3Service;
+
+    @Autowired
+    public TaskBatchController(TaskV3Service taskV3Service) {
+        this.taskV3Service = taskV3Service;
+    }
+
+    // Mapped here rather than in TaskController so the path stays /tasks:batch instead of /tasks/:batch
+    @PostMapping("/tasks:batch")
+    public ResponseEntity<TaskBatchResult> applyTaskBatch(
+            @PathVariable String boardId,
+            @RequestBody(required = false) List<TaskBatchOperation> operations,
+            @CurrentUser String userId) {
+        TaskBatchResult result = taskV3Service.applyTaskBatch(boardId, operations, userId);
+        return ResponseEntity.ok(result);
+    }
+}
@@ -6,12 +6,14 @@ import com.pl03.kanban.dtos.*;
 import com.pl03.kanban.kanban_entities.repositories.BoardRepository;
 import com.pl03.kanban.services.FileStorageService;
 import com.pl03.kanban.services.TaskV3Service;
-import com.pl03.kanban.utils.JwtTokenUtils;
+import com.pl03.kanban.security.CurrentUser;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -26,21 +28,20 @@ import java.util.stream.Collectors;
         "https://intproj23.sit.kmutt.ac.th",
         "https://intproj23.sit.kmutt.ac.th/pl3",
         "https://intproj23.sit.kmutt.ac.th/pl3/status",
-        "https://ip23pl3.sit.kmutt.ac.th"})
+        "https://ip23pl3.sit.kmutt.ac.th"},
+        exposedHeaders = BoardController.NEXT_CURSOR_HEADER)
 @RestController
 @RequestMapping("/v3/boards/{boardId}/tasks")
 public class TaskController {
     private final TaskV3Service taskV3Service;
-    private final JwtTokenUtils jwtTokenUtils;
 
     private final BoardRepository boardRepository;
 
     private final FileStorageService fileStorageService;
 
     @Autowired
-    public TaskController(TaskV3Service taskV3Service, JwtTokenUtils jwtTokenUtils, BoardRepository boardRepository, FileStorageService fileStorageService) {
+    public TaskController(TaskV3Service taskV3Service, BoardRepository boardRepository, FileStorageService fileStorageService) {
         this.taskV3Service = taskV3Service;
-        this.jwtTokenUtils = jwtTokenUtils;
         this.boardRepository = boardRepository;
         this.fileStorageService = fileStorageService;
     }
@@ -50,28 +51,40 @@ public class TaskController {
             @PathVariable String boardId,
             @RequestParam(required = false) String sortBy,
             @RequestParam(required = false) List<String> filterStatuses,
-            @RequestHeader(value = "Authorization", required = false) String authHeader) {
-        String userId = null; //for public access
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-            if (jwtTokenUtils.validateToken(token)) {
-                userId = getUserIdFromToken(token);
-            }
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            @CurrentUser String userId) {
+        // Without a limit the whole board is returned, as before
+        if (limit == null) {
+            List<GetAllTaskDto> allTasks = taskV3Service.getAllTasks(boardId, sortBy, filterStatuses, userId);
+            return ResponseEntity.status(HttpStatus.OK).body(allTasks);
         }
 
+        // Keyset page on (status name, id), the cursor for the next page is sent back in a header
+        CursorPage<GetAllTaskDto> page = taskV3Service.getTasksPage(boardId, sortBy, filterStatuses, limit, after, userId);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(BoardController.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
 
-        List<GetAllTaskDto> allTasks = taskV3Service.getAllTasks(boardId, sortBy, filterStatuses, userId);
-        return ResponseEntity.status(HttpStatus.OK).body(allTasks);
+    // Same list as newline-delimited JSON, picked when the client sends Accept: application/x-ndjson
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllTasks(
+            @PathVariable String boardId,
+            @RequestParam(required = false) String sortBy,
+            @RequestParam(required = false) List<String> filterStatuses,
+            @CurrentUser String userId) {
+        StreamingResponseBody body = taskV3Service.streamAllTasks(boardId, sortBy, filterStatuses, userId);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @PostMapping
     public ResponseEntity<AddEditTaskDto> createTask(
             @PathVariable String boardId,
             @RequestBody(required = false) AddEditTaskDto addEditTaskDto,
-            @RequestHeader("Authorization") String authHeader) {
-        String token = authHeader.substring(7);
-        String userId = getUserIdFromToken(token);
-
+            @CurrentUser String userId) {
         AddEditTaskDto createdTask = taskV3Service.createTask(boardId, addEditTaskDto, userId);
         return new ResponseEntity<>(createdTask, HttpStatus.CREATED);
     }
@@ -80,15 +93,7 @@ public class TaskController {
     public ResponseEntity<TaskDetailDtoWithAttachments> getTaskById(
             @PathVariable String boardId,
             @PathVariable int taskId,
-            @RequestHeader(value = "Authorization", required = false) String authHeader) {
-
-        String userId = null; //for public access
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-            if (jwtTokenUtils.validateToken(token)) {
-                userId = getUserIdFromToken(token);
-            }
-        }
+            @CurrentUser String userId) {
 
         TaskDetailDtoWithAttachments taskDto = taskV3Service.getTaskById(boardId, taskId, userId);
         return ResponseEntity.ok(taskDto);
@@ -100,10 +105,7 @@ public class TaskController {
             @PathVariable int taskId,
             @RequestPart(value = "task", required = false) String taskJson,
             @RequestPart(value = "files", required = false) List<MultipartFile> files,
-            @RequestHeader("Authorization") String authHeader) {
-
-        String token = authHeader.substring(7);
-        String userId = getUserIdFromToken(token);
+            @CurrentUser String userId) {
 
         // Convert task JSON to DTO
         AddEditTaskDtoWithAttachments addEditTaskDto;
@@ -133,17 +135,21 @@ public class TaskController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    // Plain JSON edit of title, description, assignees or status, no multipart and no attachment handling
+    @PatchMapping("/{taskId}")
+    public ResponseEntity<AddEditTaskDto> patchTask(
+            @PathVariable String boardId,
+            @PathVariable int taskId,
+            @RequestBody(required = false) Map<String, String> changes,
+            @CurrentUser String userId) {
+        AddEditTaskDto response = taskV3Service.patchTask(boardId, taskId, changes, userId);
+        return ResponseEntity.ok(response);
+    }
+
     @DeleteMapping("/{taskId}")
     public ResponseEntity<AddEditTaskDto> deleteTask(@PathVariable String boardId, @PathVariable int taskId,
-                                                     @RequestHeader("Authorization") String authHeader) {
-        String token = authHeader.substring(7);
-        String userId = getUserIdFromToken(token);
+                                                     @CurrentUser String userId) {
         AddEditTaskDto addEditTaskById = taskV3Service.deleteTaskById(boardId, taskId, userId);
         return ResponseEntity.ok(addEditTaskById);
     }
-
-    private String getUserIdFromToken(String token) {
-        Map<String, Object> claims = jwtTokenUtils.getClaimsFromToken(token);
-        return (String) claims.get("oid");
-    }
 }
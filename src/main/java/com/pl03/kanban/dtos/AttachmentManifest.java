@@ -0,0 +1,23 @@
+package com.pl03.kanban.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// The complete attachment set a client wants on a task, by name and SHA-256 of the content (hex)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttachmentManifest {
+    private List<Entry> files;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+        private String name;
+        private String hash;
+    }
+}
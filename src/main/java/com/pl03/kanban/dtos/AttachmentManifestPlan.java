@@ -0,0 +1,18 @@
+package com.pl03.kanban.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// What applying a manifest would change. Only contents listed in missing have to be uploaded.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttachmentManifestPlan {
+    private List<String> missing; // hashes the server does not have for this board
+    private List<String> added; // names
+    private List<String> deleted; // names, including names whose content changes
+    private List<String> unchanged; // names
+}
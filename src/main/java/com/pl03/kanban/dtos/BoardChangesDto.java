@@ -0,0 +1,19 @@
+package com.pl03.kanban.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BoardChangesDto {
+    private long version; // pass as since on the next call
+    private boolean resyncRequired; // true when the client must refetch the full lists instead of applying the delta
+    private List<Integer> upsertedTaskIds;
+    private List<Integer> deletedTaskIds;
+    private List<Integer> upsertedStatusIds;
+    private List<Integer> deletedStatusIds;
+}
@@ -0,0 +1,19 @@
+package com.pl03.kanban.dtos;
+
+import lombok.Data;
+import lombok.experimental.FieldNameConstants;
+
+@Data
+@FieldNameConstants
+public class TaskBatchOperation {
+    public static final String CREATE = "create";
+    public static final String UPDATE_STATUS = "updateStatus";
+    public static final String DELETE = "delete";
+
+    private String op;
+    private Integer taskId; // updateStatus and delete
+    private String title; // create
+    private String description; // create
+    private String assignees; // create
+    private String status; // status id, create (optional) and updateStatus
+}
@@ -0,0 +1,16 @@
+package com.pl03.kanban.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskBatchResult {
+    private List<AddEditTaskDto> created;
+    private List<Integer> updated;
+    private List<Integer> deleted;
+}
@@ -0,0 +1,6 @@
+package com.pl03.kanban.events;
+
+// Published when a collaborator is added, accepted, declined, updated or removed (oid set),
+// or when the board visibility changes (oid null, every requester may be affected)
+public record BoardAccessChangedEvent(String boardId, String oid) {
+}
@@ -0,0 +1,13 @@
+package com.pl03.kanban.events;
+
+import java.util.List;
+
+// Published by BoardChangeService for every recorded version, delivered to subscribers after commit.
+// Same id lists as the delta of GET /v3/boards/{id}/changes.
+public record BoardChangeEvent(String boardId,
+                               long version,
+                               List<Integer> upsertedTaskIds,
+                               List<Integer> deletedTaskIds,
+                               List<Integer> upsertedStatusIds,
+                               List<Integer> deletedStatusIds) {
+}
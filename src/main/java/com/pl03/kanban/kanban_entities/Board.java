@@ -53,6 +53,10 @@ public class Board {
     @Column(name = "updatedOn", nullable = false, insertable = false)
     private Timestamp updatedOn;
 
+    // Bumped by BoardChangeService with an UPDATE statement, never written through the entity
+    @Column(name = "changeVersion", nullable = false, insertable = false, updatable = false)
+    private long changeVersion;
+
     @OneToMany(mappedBy = "board", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<BoardCollaborators> collaborators = new ArrayList<>();
     // create an empty list to prevent get collabs method from returning null
@@ -0,0 +1,57 @@
+package com.pl03.kanban.kanban_entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.sql.Timestamp;
+
+// One row per task or status change, read by the delta sync endpoint
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "board_change", schema = "kanban_entities")
+public class BoardChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "board_change_id")
+    @TableGenerator(name = "board_change_id", schema = "kanban_entities", table = "id_generator",
+            pkColumnName = "entity", valueColumnName = "next_val", pkColumnValue = "board_change", allocationSize = 50)
+    private long id;
+
+    // Plain column rather than a relation, writing a change never loads the board
+    @Column(name = "boardId", nullable = false, length = 10)
+    private String boardId;
+
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entityType", nullable = false)
+    private EntityType entityType;
+
+    @Column(name = "entityId", nullable = false)
+    private int entityId;
+
+    @Column(name = "deleted", nullable = false)
+    private boolean deleted;
+
+    @Column(name = "changedOn", nullable = false, updatable = false, insertable = false)
+    private Timestamp changedOn;
+
+    public BoardChange(String boardId, long version, EntityType entityType, int entityId, boolean deleted) {
+        this.boardId = boardId;
+        this.version = version;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.deleted = deleted;
+    }
+
+    public enum EntityType {
+        TASK, STATUS
+    }
+}
@@ -0,0 +1,41 @@
+package com.pl03.kanban.kanban_entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.sql.Timestamp;
+
+// One stored attachment content, shared by every file_storage row with the same SHA-256.
+// refCount is the number of those rows, the blob file is removed once it drops to zero.
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "file_blob", schema = "kanban_entities")
+public class FileBlob {
+
+    @Id
+    @Column(name = "hash", nullable = false, length = 64)
+    private String hash;
+
+    @Column(name = "size", nullable = false)
+    private long size;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "created_on", nullable = false, updatable = false, insertable = false)
+    private Timestamp createdOn;
+
+    @Column(name = "updated_on", nullable = false, updatable = false, insertable = false)
+    private Timestamp updatedOn;
+
+    public FileBlob(String hash, long size) {
+        this.hash = hash;
+        this.size = size;
+    }
+}
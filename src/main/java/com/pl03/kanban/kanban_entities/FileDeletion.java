@@ -0,0 +1,56 @@
+package com.pl03.kanban.kanban_entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.sql.Timestamp;
+
+// Outbox row for a file to remove from disk, written in the transaction that dropped the file's metadata.
+// Either path (a file stored under its own path) or contentHash (a blob, removed only if still unreferenced) is set.
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@Table(name = "file_deletion", schema = "kanban_entities")
+public class FileDeletion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "file_deletion_id")
+    @TableGenerator(name = "file_deletion_id", schema = "kanban_entities", table = "id_generator",
+            pkColumnName = "entity", valueColumnName = "next_val", pkColumnValue = "file_deletion", allocationSize = 50)
+    private long id;
+
+    @Column(name = "path", length = 500)
+    private String path;
+
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Timestamp nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_on", nullable = false, updatable = false, insertable = false)
+    private Timestamp createdOn;
+
+    public static FileDeletion ofPath(String path) {
+        FileDeletion fileDeletion = new FileDeletion();
+        fileDeletion.setPath(path);
+        fileDeletion.setNextAttemptAt(new Timestamp(System.currentTimeMillis()));
+        return fileDeletion;
+    }
+
+    public static FileDeletion ofBlob(String contentHash) {
+        FileDeletion fileDeletion = new FileDeletion();
+        fileDeletion.setContentHash(contentHash);
+        fileDeletion.setNextAttemptAt(new Timestamp(System.currentTimeMillis()));
+        return fileDeletion;
+    }
+}
@@ -15,7 +15,9 @@ import java.sql.Timestamp;
 public class FileStorage {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "file_storage_id")
+    @TableGenerator(name = "file_storage_id", schema = "kanban_entities", table = "id_generator",
+            pkColumnName = "entity", valueColumnName = "next_val", pkColumnValue = "file_storage", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 255)
@@ -27,6 +29,10 @@ public class FileStorage {
     @Column(nullable = false, length = 500)
     private String path;
 
+    // SHA-256 of the content for files kept in the blob store, null for files stored under their own path
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @Column(name = "added_on", nullable = false, updatable = false, insertable = false)
     private Timestamp addedOn;
 
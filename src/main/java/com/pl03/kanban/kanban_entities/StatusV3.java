@@ -18,7 +18,10 @@ import java.sql.Timestamp;
 public class StatusV3 {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Ids are handed out in blocks from id_generator, so new rows can be sent as one JDBC batch (IDENTITY cannot)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "statusv3_id")
+    @TableGenerator(name = "statusv3_id", schema = "kanban_entities", table = "id_generator",
+            pkColumnName = "entity", valueColumnName = "next_val", pkColumnValue = "statusv3", allocationSize = 50)
     @Column(name = "statusId")
     private int id;
 
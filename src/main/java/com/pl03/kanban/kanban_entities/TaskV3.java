@@ -5,6 +5,7 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.sql.Timestamp;
 import java.util.ArrayList;
@@ -13,12 +14,15 @@ import java.util.List;
 @Data
 @Entity
 @Table(name = "taskv3", schema = "kanban_entities")
+@DynamicUpdate // UPDATE only the changed columns, a status move writes taskStatusId alone
 @AllArgsConstructor
 @NoArgsConstructor
 public class TaskV3 {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "taskv3_id")
+    @TableGenerator(name = "taskv3_id", schema = "kanban_entities", table = "id_generator",
+            pkColumnName = "entity", valueColumnName = "next_val", pkColumnValue = "taskv3", allocationSize = 50)
     private int id;
 
     @Column(name = "taskTitle", nullable = false, length = 100)
@@ -0,0 +1,30 @@
+package com.pl03.kanban.kanban_entities.repositories;
+
+import com.pl03.kanban.kanban_entities.BoardChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BoardChangeRepository extends JpaRepository<BoardChange, Long> {
+
+    // Changes in (since, upTo], oldest first so a later change of the same entity wins
+    @Query("SELECT c.entityType AS entityType, c.entityId AS entityId, c.deleted AS deleted FROM BoardChange c " +
+            "WHERE c.boardId = :boardId AND c.version > :since AND c.version <= :upTo ORDER BY c.version, c.id")
+    List<ChangeView> findChanges(@Param("boardId") String boardId,
+                                 @Param("since") long since,
+                                 @Param("upTo") long upTo,
+                                 Pageable pageable);
+
+    interface ChangeView {
+        BoardChange.EntityType getEntityType();
+
+        int getEntityId();
+
+        boolean getDeleted();
+    }
+}
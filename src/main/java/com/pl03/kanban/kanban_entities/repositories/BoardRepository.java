@@ -1,13 +1,70 @@
 package com.pl03.kanban.kanban_entities.repositories;
 
 import com.pl03.kanban.kanban_entities.Board;
+import com.pl03.kanban.kanban_entities.BoardCollaborators;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface BoardRepository extends JpaRepository<Board, String> {
     boolean existsById(String id);
 
     boolean existsByUserOid(String userOid);
 
+    // Everything an access check needs in one round trip, collaboratorAccessRight is null when the requester is not a collaborator
+    @Query("SELECT b.visibility AS visibility, b.user.oid AS ownerOid, c.accessRight AS collaboratorAccessRight " +
+            "FROM Board b LEFT JOIN BoardCollaborators c ON c.id.boardId = b.id AND c.id.userId = :oid " +
+            "WHERE b.id = :boardId")
+    Optional<BoardAccessView> findAccessView(@Param("boardId") String boardId, @Param("oid") String oid);
+
+    // Boards the requester can see: public, owned, or collaborated (pending included because of the invitation link)
+    String VISIBLE_TO_REQUESTER = "(b.visibility = 'PUBLIC' OR b.user.oid = :oid " +
+            "OR EXISTS (SELECT 1 FROM BoardCollaborators bc WHERE bc.id.boardId = b.id AND bc.id.userId = :oid))";
+
+    // Owner and collaborators are fetched in the same pass so building the response needs no extra query
+    @Query("SELECT DISTINCT b FROM Board b JOIN FETCH b.user LEFT JOIN FETCH b.collaborators c LEFT JOIN FETCH c.user " +
+            "WHERE " + VISIBLE_TO_REQUESTER + " ORDER BY b.createdOn, b.id")
+    List<Board> findVisibleBoards(@Param("oid") String oid);
+
+    // Keyset pagination on (createdOn, boardId), first page
+    @Query("SELECT b.id FROM Board b WHERE " + VISIBLE_TO_REQUESTER + " ORDER BY b.createdOn, b.id")
+    List<String> findVisibleBoardIds(@Param("oid") String oid, Pageable pageable);
+
+    // Keyset pagination on (createdOn, boardId), pages after the given cursor
+    @Query("SELECT b.id FROM Board b WHERE " + VISIBLE_TO_REQUESTER +
+            " AND (b.createdOn > :afterCreatedOn OR (b.createdOn = :afterCreatedOn AND b.id > :afterId))" +
+            " ORDER BY b.createdOn, b.id")
+    List<String> findVisibleBoardIdsAfter(@Param("oid") String oid,
+                                          @Param("afterCreatedOn") Timestamp afterCreatedOn,
+                                          @Param("afterId") String afterId,
+                                          Pageable pageable);
+
+    @Query("SELECT DISTINCT b FROM Board b JOIN FETCH b.user LEFT JOIN FETCH b.collaborators c LEFT JOIN FETCH c.user " +
+            "WHERE b.id IN :ids ORDER BY b.createdOn, b.id")
+    List<Board> findWithCollaboratorsByIdIn(@Param("ids") List<String> ids);
+
+    // updatedOn is assigned to itself so MySQL's ON UPDATE CURRENT_TIMESTAMP does not fire on a version bump.
+    // The row lock taken here is held until commit, so versions of a board become visible in order.
+    @Modifying
+    @Query("UPDATE Board b SET b.changeVersion = b.changeVersion + 1, b.updatedOn = b.updatedOn WHERE b.id = :boardId")
+    int incrementChangeVersion(@Param("boardId") String boardId);
+
+    @Query("SELECT b.changeVersion FROM Board b WHERE b.id = :boardId")
+    Optional<Long> findChangeVersion(@Param("boardId") String boardId);
+
+    interface BoardAccessView {
+        Board.Visibility getVisibility();
+
+        String getOwnerOid();
+
+        BoardCollaborators.AccessRight getCollaboratorAccessRight();
+    }
 }
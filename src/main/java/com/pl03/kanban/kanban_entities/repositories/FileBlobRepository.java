@@ -0,0 +1,37 @@
+package com.pl03.kanban.kanban_entities.repositories;
+
+import com.pl03.kanban.kanban_entities.FileBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface FileBlobRepository extends JpaRepository<FileBlob, String> {
+
+    // The row lock taken here is held until commit, a blob can not be cleaned up while a reference is being added
+    @Modifying
+    @Query("UPDATE FileBlob b SET b.refCount = b.refCount + 1 WHERE b.hash = :hash")
+    int addReference(@Param("hash") String hash);
+
+    @Modifying
+    @Query("UPDATE FileBlob b SET b.refCount = b.refCount - 1 WHERE b.hash = :hash AND b.refCount > 0")
+    int removeReference(@Param("hash") String hash);
+
+    @Query("SELECT b.refCount FROM FileBlob b WHERE b.hash = :hash")
+    Optional<Integer> findRefCount(@Param("hash") String hash);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM FileBlob b WHERE b.hash = :hash")
+    Optional<FileBlob> findByHashForUpdate(@Param("hash") String hash);
+
+    @Query("SELECT b.hash FROM FileBlob b WHERE b.refCount = 0 AND b.updatedOn < :before")
+    List<String> findUnreferencedBefore(@Param("before") Timestamp before);
+}
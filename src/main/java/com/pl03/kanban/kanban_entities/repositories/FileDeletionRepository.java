@@ -0,0 +1,23 @@
+package com.pl03.kanban.kanban_entities.repositories;
+
+import com.pl03.kanban.kanban_entities.FileDeletion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+@Repository
+public interface FileDeletionRepository extends JpaRepository<FileDeletion, Long> {
+
+    // Oldest first, rows that used up their attempts are left for an operator
+    @Query("SELECT d FROM FileDeletion d WHERE d.nextAttemptAt <= :now AND d.attempts < :maxAttempts ORDER BY d.id")
+    List<FileDeletion> findDue(@Param("now") Timestamp now, @Param("maxAttempts") int maxAttempts, Pageable pageable);
+
+    long countByAttemptsLessThan(int maxAttempts);
+
+    long countByAttemptsGreaterThanEqual(int maxAttempts);
+}
@@ -3,10 +3,14 @@ package com.pl03.kanban.kanban_entities.repositories;
 import com.pl03.kanban.kanban_entities.FileStorage;
 import com.pl03.kanban.kanban_entities.TaskV3;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface FileStorageRepository extends JpaRepository<FileStorage,Long> {
@@ -14,5 +18,13 @@ public interface FileStorageRepository extends JpaRepository<FileStorage,Long> {
     List<FileStorage> findByTaskId(int taskId);
     Optional<FileStorage> findByNameAndTask_Id(String name, int taskId);
 
+    // Files stored before the blob store, read in id order by AttachmentBlobMigration
+    List<FileStorage> findTop100ByContentHashIsNullAndIdGreaterThanOrderByIdAsc(long id);
+
+    // Contents an attachment manifest may reference without uploading them, limited to the board so a hash
+    // alone never gives access to another board's file
+    @Query("SELECT DISTINCT f.contentHash FROM FileStorage f WHERE f.task.board.id = :boardId AND f.contentHash IN :hashes")
+    Set<String> findContentHashesInBoard(@Param("boardId") String boardId, @Param("hashes") Collection<String> hashes);
+
 
 }
@@ -1,7 +1,11 @@
 package com.pl03.kanban.kanban_entities.repositories;
 
 import com.pl03.kanban.kanban_entities.StatusV3;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,6 +17,11 @@ public interface StatusV3Repository extends JpaRepository<StatusV3, Integer> {
     List<StatusV3> findByBoardId(String id);
     Optional<StatusV3> findByIdAndBoardId(int id, String boardId);
 
+    // Row lock on the status, task inserts and moves into it wait on their foreign key check until commit
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM StatusV3 s WHERE s.id = :id AND s.board.id = :boardId")
+    Optional<StatusV3> findByIdAndBoardIdForUpdate(@Param("id") int id, @Param("boardId") String boardId);
+
     Optional<StatusV3> findByNameAndBoardId(String statusName, String boardId);
 
     boolean existsByNameIgnoreCaseAndBoardId(String name, String boardId);
@@ -1,30 +1,104 @@
 package com.pl03.kanban.kanban_entities.repositories;
 
+import com.pl03.kanban.dtos.GetAllTaskDto;
 import com.pl03.kanban.kanban_entities.StatusV3;
 import com.pl03.kanban.kanban_entities.TaskV3;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TaskV3Repository extends JpaRepository<TaskV3, Integer> {
     List<TaskV3> findByStatusV3(StatusV3 statusV3);
+    boolean existsByStatusV3Id(int statusId);
 //    List<TaskV3> findByStatusV3In(List<StatusV3> statusV3s, Sort sort);
 
 
-    Optional<TaskV3> findByIdAndBoardId(int taskId, String id); //fetch single task
+    // The eager status comes in the same statement instead of a SELECT of its own
+    @Query("SELECT t FROM TaskV3 t JOIN FETCH t.statusV3 WHERE t.id = :taskId AND t.board.id = :boardId")
+    Optional<TaskV3> findByIdAndBoardId(@Param("taskId") int taskId, @Param("boardId") String boardId); //fetch single task
     List<TaskV3> findByBoardId(String id); //fetch all tasks in a board
 
-    List<TaskV3> findByBoardId(String boardId, Sort sort); //fetch all tasks in a board (sorted)
+    // Task list rows are projected straight into the DTO, no entities are loaded for the list endpoint
+    String SELECT_GET_ALL_TASK_DTO = "SELECT new com.pl03.kanban.dtos.GetAllTaskDto(t.id, t.title, t.assignees, s.name, t.board.id) " +
+            "FROM TaskV3 t JOIN t.statusV3 s ";
 
-    List<TaskV3> findByStatusV3InAndBoardId(List<StatusV3> statusV3s, String boardId, Sort sort); //fetch all tasks in a board (sorted, status filtered)
-    List<TaskV3> findByStatusV3InAndBoardId(List<StatusV3> statusV3s, String boardId); //fetch all tasks in a board (status filtered no sort)
+    @Query(SELECT_GET_ALL_TASK_DTO + "WHERE t.board.id = :boardId")
+    List<GetAllTaskDto> findTaskDtosByBoardId(@Param("boardId") String boardId); //fetch all tasks in a board
+
+    @Query(SELECT_GET_ALL_TASK_DTO + "WHERE t.board.id = :boardId ORDER BY s.name, t.id")
+    List<GetAllTaskDto> findTaskDtosByBoardIdOrderByStatusName(@Param("boardId") String boardId); //fetch all tasks in a board (sorted)
+
+    // Status filters join on the status name, so a filtered view is a single statement on (boardId, taskStatusId)
+    @Query(SELECT_GET_ALL_TASK_DTO + "WHERE t.board.id = :boardId AND s.name IN :statusNames")
+    List<GetAllTaskDto> findTaskDtosByBoardIdAndStatusNameIn(@Param("boardId") String boardId, @Param("statusNames") List<String> statusNames); //fetch all tasks in a board (status filtered no sort)
+
+    @Query(SELECT_GET_ALL_TASK_DTO + "WHERE t.board.id = :boardId AND s.name IN :statusNames ORDER BY s.name, t.id")
+    List<GetAllTaskDto> findTaskDtosByBoardIdAndStatusNameInOrderByStatusName(@Param("boardId") String boardId, @Param("statusNames") List<String> statusNames); //fetch all tasks in a board (sorted, status filtered)
+
+    // Keyset pagination on (status name, id), the same order as sortBy=statusV3.name
+    String AFTER_CURSOR = "AND (s.name > :afterStatus OR (s.name = :afterStatus AND t.id > :afterId)) ";
+
+    @Query(SELECT_GET_ALL_TASK_DTO + "WHERE t.board.id = :boardId ORDER BY s.name, t.id")
+    List<GetAllTaskDto> findTaskDtoPageByBoardId(@Param("boardId") String boardId, Pageable pageable);
+
+    @Query(SELECT_GET_ALL_TASK_DTO + "WHERE t.board.id = :boardId " + AFTER_CURSOR + "ORDER BY s.name, t.id")
+    List<GetAllTaskDto> findTaskDtoPageByBoardIdAfter(@Param("boardId") String boardId,
+                                                      @Param("afterStatus") String afterStatus,
+                                                      @Param("afterId") int afterId,
+                                                      Pageable pageable);
+
+    @Query(SELECT_GET_ALL_TASK_DTO + "WHERE t.board.id = :boardId AND s.name IN :statusNames ORDER BY s.name, t.id")
+    List<GetAllTaskDto> findTaskDtoPageByBoardIdAndStatusNameIn(@Param("boardId") String boardId,
+                                                                @Param("statusNames") List<String> statusNames,
+                                                                Pageable pageable);
+
+    @Query(SELECT_GET_ALL_TASK_DTO + "WHERE t.board.id = :boardId AND s.name IN :statusNames " + AFTER_CURSOR + "ORDER BY s.name, t.id")
+    List<GetAllTaskDto> findTaskDtoPageByBoardIdAndStatusNameInAfter(@Param("boardId") String boardId,
+                                                                     @Param("statusNames") List<String> statusNames,
+                                                                     @Param("afterStatus") String afterStatus,
+                                                                     @Param("afterId") int afterId,
+                                                                     Pageable pageable);
+
+    // Integer.MIN_VALUE makes MySQL Connector/J stream rows one by one instead of buffering the whole result set.
+    // The returned stream must be consumed and closed inside a transaction.
+    String MYSQL_STREAMING_FETCH_SIZE = "" + Integer.MIN_VALUE;
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = MYSQL_STREAMING_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query(SELECT_GET_ALL_TASK_DTO + "WHERE t.board.id = :boardId")
+    Stream<GetAllTaskDto> streamTaskDtosByBoardId(@Param("boardId") String boardId, Sort sort);
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = MYSQL_STREAMING_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query(SELECT_GET_ALL_TASK_DTO + "WHERE t.board.id = :boardId AND s.name IN :statusNames")
+    Stream<GetAllTaskDto> streamTaskDtosByBoardIdAndStatusNameIn(@Param("boardId") String boardId,
+                                                                 @Param("statusNames") List<String> statusNames,
+                                                                 Sort sort);
+
+    @Query("SELECT t.id FROM TaskV3 t WHERE t.statusV3 = :statusV3 AND t.board.id = :boardId")
+    List<Integer> findIdsByStatusV3AndBoardId(@Param("statusV3") StatusV3 statusV3, @Param("boardId") String boardId);
+
+    // Moves every task of a status in one statement instead of one UPDATE per task
+    @Modifying
+    @Query("UPDATE TaskV3 t SET t.statusV3 = :newStatusV3 WHERE t.statusV3 = :oldStatusV3 AND t.board.id = :boardId")
+    int transferTasks(@Param("oldStatusV3") StatusV3 oldStatusV3, @Param("newStatusV3") StatusV3 newStatusV3, @Param("boardId") String boardId);
 
     @Query("SELECT t FROM TaskV3 t LEFT JOIN FETCH t.files LEFT JOIN FETCH t.statusV3 WHERE t.id = :taskId AND t.board.id = :boardId")
     Optional<TaskV3> findByIdAndBoardIdWithFiles(@Param("taskId") int taskId, @Param("boardId") String boardId);
+
+    @Query("SELECT DISTINCT t FROM TaskV3 t LEFT JOIN FETCH t.files JOIN FETCH t.statusV3 WHERE t.id IN :taskIds AND t.board.id = :boardId")
+    List<TaskV3> findByIdInAndBoardIdWithFiles(@Param("taskIds") Collection<Integer> taskIds, @Param("boardId") String boardId); //fetch tasks of a batch
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.pl03.kanban.mappers;
+
+import com.pl03.kanban.dtos.StatusDto;
+import com.pl03.kanban.kanban_entities.StatusV3;
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface StatusMapper {
+
+    StatusDto toStatusDto(StatusV3 statusV3);
+
+    List<StatusDto> toStatusDtos(List<StatusV3> statusV3s);
+}
@@ -0,0 +1,53 @@
+package com.pl03.kanban.mappers;
+
+import com.pl03.kanban.dtos.*;
+import com.pl03.kanban.kanban_entities.FileStorage;
+import com.pl03.kanban.kanban_entities.TaskV3;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.List;
+
+// Generated at compile time, replaces the reflective ModelMapper type maps for task responses
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface TaskMapper {
+
+    @Mapping(target = "status", source = "statusV3.name")
+    @Mapping(target = "boardId", source = "board.id")
+    GetAllTaskDto toGetAllTaskDto(TaskV3 task);
+
+    List<GetAllTaskDto> toGetAllTaskDtos(List<TaskV3> tasks);
+
+    @Mapping(target = "status", source = "statusV3.name")
+    @Mapping(target = "boardId", source = "board.id")
+    AddEditTaskDto toAddEditTaskDto(TaskV3 task);
+
+    // Attachments are filled in by the service, only files with a type are listed
+    @Mapping(target = "status", source = "statusV3.name")
+    @Mapping(target = "boardId", source = "board.id")
+    @Mapping(target = "newAttachments", ignore = true)
+    @Mapping(target = "attachmentsToDelete", ignore = true)
+    @Mapping(target = "existingAttachments", ignore = true)
+    AddEditTaskDtoWithAttachments toAddEditTaskDtoWithAttachments(TaskV3 task);
+
+    // Variants with the status name from StatusCatalog: a status set with getReferenceById is an uninitialized
+    // proxy, and reading its name would load it
+    @Mapping(target = "status", source = "statusName")
+    @Mapping(target = "boardId", source = "task.board.id")
+    AddEditTaskDto toAddEditTaskDto(TaskV3 task, String statusName);
+
+    @Mapping(target = "status", source = "statusName")
+    @Mapping(target = "boardId", source = "task.board.id")
+    @Mapping(target = "newAttachments", ignore = true)
+    @Mapping(target = "attachmentsToDelete", ignore = true)
+    @Mapping(target = "existingAttachments", ignore = true)
+    AddEditTaskDtoWithAttachments toAddEditTaskDtoWithAttachments(TaskV3 task, String statusName);
+
+    @Mapping(target = "status", source = "statusV3.name")
+    @Mapping(target = "boardId", source = "board.id")
+    @Mapping(target = "attachments", source = "files")
+    TaskDetailDtoWithAttachments toTaskDetailDto(TaskV3 task);
+
+    FileAttachmentDto toFileAttachmentDto(FileStorage file);
+}
@@ -0,0 +1,13 @@
+package com.pl03.kanban.security;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Injects the user of the token JwtAuthFilter already verified: a String parameter receives the oid,
+// a JwtUserDetails parameter the whole principal. Both are null for anonymous requests.
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CurrentUser {
+}
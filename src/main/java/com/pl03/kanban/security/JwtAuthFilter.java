@@ -4,7 +4,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pl03.kanban.exceptions.ErrorResponse;
 import com.pl03.kanban.utils.JwtTokenUtils;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -30,45 +32,54 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
+        String authHeader = request.getHeader("Authorization");
+        boolean hasToken = authHeader != null && authHeader.startsWith("Bearer ");
+
+        // Public reads stay anonymous without a usable token, as they were when controllers parsed it themselves
         if (shouldSkipAuthentication(request)) {
+            if (hasToken) {
+                try {
+                    authenticate(request, authHeader.substring(7));
+                } catch (JwtException | IllegalArgumentException e) {
+                    SecurityContextHolder.clearContext();
+                }
+            }
             filterChain.doFilter(request, response);
             return;
         }
 
-        try {
-            String authHeader = request.getHeader("Authorization");
-
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                setErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "No token provided");
-                return;
-            }
-
-            String token = authHeader.substring(7);
-
-            // Validate the token
-            jwtTokenUtils.validateToken(token);
-
-            Map<String, Object> claims = jwtTokenUtils.getClaimsFromToken(token);
-            JwtUserDetails userDetails = new JwtUserDetails(claims);
-            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                    userDetails, null, userDetails.getAuthorities()
-            );
-            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+        if (!hasToken) {
+            setErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "No token provided");
+            return;
+        }
 
-            filterChain.doFilter(request, response);
+        try {
+            authenticate(request, authHeader.substring(7));
         } catch (ExpiredJwtException e) {
             setErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "Token has expired");
-        } catch (MalformedJwtException e) {
+            return;
+        } catch (MalformedJwtException | UnsupportedJwtException e) {
             setErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "Token is not well-formed");
+            return;
         } catch (SignatureException e) {
             setErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "JWT token has been tampered with");
+            return;
         } catch (IllegalArgumentException e) {
             setErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "JWT token compact of handler are invalid");
+            return;
         }
-//        catch (Exception e) {
-//            setErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "An error occurred while processing the JWT");
-//        }
+        filterChain.doFilter(request, response);
+    }
+
+    // The only place the token is verified and parsed, controllers read the principal through @CurrentUser
+    private void authenticate(HttpServletRequest request, String token) {
+        Map<String, Object> claims = jwtTokenUtils.getClaimsFromToken(token);
+        JwtUserDetails userDetails = new JwtUserDetails(claims);
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                userDetails, null, userDetails.getAuthorities()
+        );
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
     }
 
     private void setErrorResponse(HttpServletResponse response, int status, String message) throws IOException {
@@ -83,7 +94,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
-        return "/login".equals(request.getServletPath()) || shouldSkipAuthentication(request);
+        return "/login".equals(request.getServletPath());
     }
 
     private boolean shouldSkipAuthentication(HttpServletRequest request) {
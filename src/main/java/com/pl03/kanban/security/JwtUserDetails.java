@@ -14,6 +14,14 @@ public class JwtUserDetails implements UserDetails {
         this.claims = claims;
     }
 
+    public String getOid() {
+        return (String) claims.get("oid");
+    }
+
+    public String getName() {
+        return (String) claims.get("name");
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         // You can extract authorities from the claims and return them as GrantedAuthority objects
@@ -0,0 +1,16 @@
+package com.pl03.kanban.services;
+
+import com.pl03.kanban.dtos.BoardChangesDto;
+import com.pl03.kanban.kanban_entities.BoardChange;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Collection;
+
+public interface BoardChangeService {
+    void recordChange(String boardId, BoardChange.EntityType entityType, int entityId, boolean deleted);
+    void recordChanges(String boardId, BoardChange.EntityType entityType, Collection<Integer> upsertedIds, Collection<Integer> deletedIds);
+    void recordChanges(String boardId, Collection<Integer> upsertedTaskIds, Collection<Integer> deletedTaskIds,
+                       Collection<Integer> upsertedStatusIds, Collection<Integer> deletedStatusIds);
+    BoardChangesDto getChangesSince(String boardId, long since, String requesterOid);
+    SseEmitter subscribe(String boardId, String requesterOid);
+}
@@ -5,6 +5,7 @@ import com.pl03.kanban.dtos.BoardRequest;
 import com.pl03.kanban.dtos.BoardResponse;
 import com.pl03.kanban.dtos.CollaboratorRequest;
 import com.pl03.kanban.dtos.CollaboratorResponse;
+import com.pl03.kanban.dtos.CursorPage;
 
 import java.util.List;
 import java.util.Map;
@@ -16,6 +17,8 @@ public interface BoardService {
 
     List<BoardResponse> getAllBoards(String requesterOid);
 
+    CursorPage<BoardResponse> getBoardsPage(String requesterOid, int limit, String cursor);
+
     BoardResponse updateBoardVisibility(String boardId, Map<String, String> updateRequest, String ownerOid);
 
     //    boolean isOwner(String boardId, String requesterOid);
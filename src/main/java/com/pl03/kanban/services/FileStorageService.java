@@ -11,7 +11,7 @@ public interface FileStorageService {
     List<String> validateAndStoreFiles(List<MultipartFile> files, TaskV3 task);
     void deleteAllFiles(TaskV3 task);
     Resource loadFileAsResource(String fileName, int taskId);
-    String getFileContentType(Resource resource);
+    String getFileContentType(String fileName);
     void deleteFilesByNames(Set<String> fileNames, TaskV3 task);
 //    void deleteAllTaskFiles(TaskV3 task);
     Set<Long> getExistingFileIds(int taskId);
@@ -10,7 +10,7 @@ public interface StatusService {
     StatusDto getStatusById(String boardId, int id, String userId);
     StatusDto updateStatus(String boardId, int id, StatusDto status, String userId);
     StatusDto deleteStatus(String boardId, int id, String userId);
-    void deleteStatusAndTransferTasks(String boardId, int id, int newStatusId, String userId);
+    int deleteStatusAndTransferTasks(String boardId, int id, int newStatusId, String userId);
     void addDefaultStatus(String boardId);
 
 }
\ No newline at end of file
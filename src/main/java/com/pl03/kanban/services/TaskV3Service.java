@@ -1,13 +1,23 @@
 package com.pl03.kanban.services;
 
 import com.pl03.kanban.dtos.*;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Map;
 
 public interface TaskV3Service {
     AddEditTaskDto createTask(String boardId, AddEditTaskDto addEditTaskDto, String requesterOid);
     List<GetAllTaskDto> getAllTasks(String boardId, String sortBy, List<String> filterStatuses, String requesterOid);
+    CursorPage<GetAllTaskDto> getTasksPage(String boardId, String sortBy, List<String> filterStatuses, int limit, String after, String requesterOid);
+    StreamingResponseBody streamAllTasks(String boardId, String sortBy, List<String> filterStatuses, String requesterOid);
     TaskDetailDtoWithAttachments getTaskById(String boardId, int taskId, String userId);
     AddEditTaskDto deleteTaskById(String boardId, int taskId, String userId);
+    TaskBatchResult applyTaskBatch(String boardId, List<TaskBatchOperation> operations, String userId);
+    AddEditTaskDto patchTask(String boardId, int taskId, Map<String, String> changes, String userId);
     AddEditTaskDtoWithAttachments updateTask(String boardId, int taskId, AddEditTaskDtoWithAttachments addEditTaskDto, String userId);
+    AddEditTaskDtoWithAttachments uploadAttachments(String boardId, int taskId, HttpServletRequest request, String userId);
+    AttachmentManifestPlan planAttachments(String boardId, int taskId, AttachmentManifest manifest, String userId);
+    AddEditTaskDtoWithAttachments applyAttachmentManifest(String boardId, int taskId, HttpServletRequest request, String userId);
 }
\ No newline at end of file
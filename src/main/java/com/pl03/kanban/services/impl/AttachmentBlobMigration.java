@@ -0,0 +1,105 @@
+package com.pl03.kanban.services.impl;
+
+import com.pl03.kanban.kanban_entities.FileStorage;
+import com.pl03.kanban.kanban_entities.repositories.FileStorageRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+
+// Moves attachments stored before the blob store into it. Started with --kanban.attachments.migrate=true, it runs
+// once at startup: each file_storage row without a content_hash is copied into the blob store and pointed at its
+// blob in its own transaction, which also queues the old file on FileDeletionOutbox. Migrated rows are skipped, so an
+// interrupted run can simply be started again. Ends with a sweep of unreferenced blobs and temp files.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "kanban.attachments.migrate", havingValue = "true")
+public class AttachmentBlobMigration implements ApplicationRunner {
+
+    private final FileStorageRepository fileStorageRepository;
+    private final AttachmentBlobStore attachmentBlobStore;
+    private final FileDeletionOutbox fileDeletionOutbox;
+    private final TransactionTemplate writeTransaction;
+    private final Duration sweepGrace;
+
+    @Autowired
+    public AttachmentBlobMigration(FileStorageRepository fileStorageRepository, AttachmentBlobStore attachmentBlobStore,
+                                   FileDeletionOutbox fileDeletionOutbox,
+                                   @Qualifier("kanbanTransactionManager") PlatformTransactionManager kanbanTransactionManager,
+                                   @Value("${kanban.attachments.sweep-grace:PT1H}") Duration sweepGrace) {
+        this.fileStorageRepository = fileStorageRepository;
+        this.attachmentBlobStore = attachmentBlobStore;
+        this.fileDeletionOutbox = fileDeletionOutbox;
+        this.sweepGrace = sweepGrace;
+        this.writeTransaction = new TransactionTemplate(kanbanTransactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.currentTimeMillis();
+        int migrated = 0;
+        int skipped = 0;
+        long lastId = 0;
+        List<FileStorage> batch;
+        while (!(batch = fileStorageRepository.findTop100ByContentHashIsNullAndIdGreaterThanOrderByIdAsc(lastId)).isEmpty()) {
+            for (FileStorage file : batch) {
+                lastId = file.getId();
+                try {
+                    if (migrate(file.getId())) {
+                        migrated++;
+                    } else {
+                        skipped++;
+                    }
+                } catch (RuntimeException e) {
+                    skipped++;
+                    log.warn("Could not move attachment {} to the blob store", file.getId(), e);
+                }
+            }
+        }
+
+        int swept = attachmentBlobStore.sweep(sweepGrace);
+        log.info("Attachment blob migration: {} files moved, {} skipped, {} unreferenced blobs removed in {} ms",
+                migrated, skipped, swept, System.currentTimeMillis() - start);
+    }
+
+    // False when the row was migrated meanwhile or its file is missing, such rows are left as they are
+    private boolean migrate(long id) {
+        return Boolean.TRUE.equals(writeTransaction.execute(status -> {
+            FileStorage file = fileStorageRepository.findById(id).orElse(null);
+            if (file == null || file.getContentHash() != null) {
+                return false;
+            }
+            Path path = Paths.get(file.getPath()).normalize();
+            if (!Files.isRegularFile(path)) {
+                log.warn("Attachment {} not found at {}, left unmigrated", id, path);
+                return false;
+            }
+
+            // Copied rather than moved, the row still points at the old file if this transaction rolls back
+            try (InputStream content = Files.newInputStream(path)) {
+                AttachmentBlobStore.TempBlob blob = attachmentBlobStore.writeTemp(content);
+                file.setPath(attachmentBlobStore.addReference(blob).toString());
+                file.setContentHash(blob.hash());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            fileDeletionOutbox.enqueuePath(path.toString());
+            return true;
+        }));
+    }
+}
@@ -0,0 +1,236 @@
+package com.pl03.kanban.services.impl;
+
+import com.pl03.kanban.kanban_entities.FileBlob;
+import com.pl03.kanban.kanban_entities.repositories.FileBlobRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+// Content-addressed attachment storage: every distinct content is stored once, under task-attachments/blobs/<ab>/<sha-256>,
+// and file_blob counts the file_storage rows that point at it. Uploads are hashed while they are written to a temp
+// file, and the temp file only becomes the blob if that content is not stored yet.
+// Adding a reference takes the file_blob row lock before the blob file is checked, and a blob file is only removed
+// under the same lock with a count of zero, so a blob can not disappear under a new reference.
+@Slf4j
+@Component
+public class AttachmentBlobStore {
+
+    private static final String TEMP_PREFIX = "upload-";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path blobLocation;
+    private final FileBlobRepository fileBlobRepository;
+    private final TransactionTemplate newTransaction;
+    private final Duration sweepGrace;
+
+    // A hashed upload, not referenced by any file_storage row yet
+    public record TempBlob(Path path, String hash, long size) {
+    }
+
+    @Autowired
+    public AttachmentBlobStore(FileBlobRepository fileBlobRepository,
+                               @Qualifier("kanbanTransactionManager") PlatformTransactionManager kanbanTransactionManager,
+                               @Value("${kanban.attachments.sweep-grace:PT1H}") Duration sweepGrace) {
+        this.fileBlobRepository = fileBlobRepository;
+        this.sweepGrace = sweepGrace;
+        this.blobLocation = Paths.get("task-attachments", "blobs").toAbsolutePath().normalize();
+        this.newTransaction = new TransactionTemplate(kanbanTransactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        try {
+            Files.createDirectories(this.blobLocation);
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not create the directory where attachment blobs are stored.", ex);
+        }
+    }
+
+    // Copies the content to a temp file next to the blobs, computing its SHA-256 on the way.
+    // The temp file is deleted if the copy fails.
+    public TempBlob writeTemp(InputStream content) throws IOException {
+        Path temp = Files.createTempFile(blobLocation, TEMP_PREFIX, TEMP_SUFFIX);
+        MessageDigest digest = sha256();
+        try (InputStream hashed = new DigestInputStream(content, digest)) {
+            long size = Files.copy(hashed, temp, StandardCopyOption.REPLACE_EXISTING);
+            return new TempBlob(temp, HexFormat.of().formatHex(digest.digest()), size);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    // Counts one more reference to the temp blob's content, inside the caller's transaction, and returns the path
+    // of the blob. The temp file becomes the blob if the content is new, otherwise it is deleted.
+    public Path addReference(TempBlob tempBlob) throws IOException {
+        String hash = tempBlob.hash();
+        // The row is created in its own transaction, so two first uploads of the same content do not collide
+        // on the primary key. Unreferenced rows are kept until sweep removes them after the grace period.
+        if (!fileBlobRepository.existsById(hash)) {
+            createRow(hash, tempBlob.size());
+        }
+        if (fileBlobRepository.addReference(hash) == 0) {
+            // Sweep removed an old unreferenced row between the check and the increment. The UPDATE may have
+            // locked the gap the row left, where another transaction would wait on us, so it is created in this one.
+            FileBlob blob = new FileBlob(hash, tempBlob.size());
+            blob.setRefCount(1);
+            fileBlobRepository.saveAndFlush(blob);
+        }
+
+        Path blobPath = blobPath(hash);
+        if (Files.exists(blobPath)) {
+            Files.deleteIfExists(tempBlob.path());
+        } else {
+            Files.createDirectories(blobPath.getParent());
+            Files.move(tempBlob.path(), blobPath, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return blobPath;
+    }
+
+    // Counts one more reference to content that is already stored, inside the caller's transaction.
+    // Empty when the blob is not stored any more, nothing is counted then.
+    public Optional<Path> addReference(String hash) {
+        if (fileBlobRepository.addReference(hash) == 0) {
+            return Optional.empty();
+        }
+        // A count of zero may have had its file removed already, the row lock keeps it from going now
+        Path blobPath = blobPath(hash);
+        if (!Files.exists(blobPath)) {
+            fileBlobRepository.removeReference(hash);
+            return Optional.empty();
+        }
+        return Optional.of(blobPath);
+    }
+
+    // Deletes temp blobs that were not referenced, those moved to the blob store are gone already
+    public void discard(Collection<TempBlob> tempBlobs) {
+        for (TempBlob tempBlob : tempBlobs) {
+            try {
+                Files.deleteIfExists(tempBlob.path());
+            } catch (IOException e) {
+                log.warn("Could not delete discarded upload {}", tempBlob.path(), e);
+            }
+        }
+    }
+
+    // Counts one reference less, inside the caller's transaction. True when nothing references the content any more,
+    // the caller then queues the blob on FileDeletionOutbox.
+    public boolean removeReference(String hash) {
+        fileBlobRepository.removeReference(hash);
+        return fileBlobRepository.findRefCount(hash).orElse(0) == 0;
+    }
+
+    // Deletes the blob file if its count is still zero, under the row lock. Called after the commit that dropped the
+    // last reference, a reference added since then keeps the blob. Throws if the file can not be deleted.
+    public void deleteIfUnreferenced(String hash) {
+        newTransaction.executeWithoutResult(status -> fileBlobRepository.findByHashForUpdate(hash)
+                .filter(blob -> blob.getRefCount() == 0)
+                .ifPresent(blob -> {
+                    try {
+                        Files.deleteIfExists(blobPath(hash));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+    }
+
+    @Scheduled(fixedDelayString = "${kanban.attachments.sweep-interval:PT6H}", initialDelayString = "${kanban.attachments.sweep-interval:PT6H}")
+    public void sweep() {
+        int removed = sweep(sweepGrace);
+        if (removed > 0) {
+            log.info("Removed {} unreferenced attachment blobs and temp files", removed);
+        }
+    }
+
+    // Removes what failed or interrupted uploads leave behind: unreferenced blobs, temp files and blob files without
+    // a file_blob row. Only entries older than the grace period are touched, so uploads in progress are left alone.
+    public int sweep(Duration grace) {
+        long before = System.currentTimeMillis() - grace.toMillis();
+        int removed = 0;
+
+        List<String> unreferenced = fileBlobRepository.findUnreferencedBefore(new Timestamp(before));
+        for (String hash : unreferenced) {
+            Boolean deleted = newTransaction.execute(status -> fileBlobRepository.findByHashForUpdate(hash)
+                    .filter(blob -> blob.getRefCount() == 0)
+                    .map(blob -> {
+                        deleteBlobFile(hash);
+                        fileBlobRepository.delete(blob);
+                        return true;
+                    })
+                    .orElse(false));
+            if (Boolean.TRUE.equals(deleted)) {
+                removed++;
+            }
+        }
+
+        try (Stream<Path> files = Files.walk(blobLocation)) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                if (Files.getLastModifiedTime(file).toMillis() >= before) {
+                    continue;
+                }
+                String name = file.getFileName().toString();
+                boolean temp = name.startsWith(TEMP_PREFIX) && name.endsWith(TEMP_SUFFIX);
+                if (temp || !fileBlobRepository.existsById(name)) {
+                    Files.deleteIfExists(file);
+                    removed++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not sweep attachment blobs", e);
+        }
+        return removed;
+    }
+
+    public Path blobPath(String hash) {
+        return blobLocation.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private void createRow(String hash, long size) {
+        try {
+            newTransaction.executeWithoutResult(status -> fileBlobRepository.saveAndFlush(new FileBlob(hash, size)));
+        } catch (DataIntegrityViolationException e) {
+            // Created by a concurrent upload of the same content
+        }
+    }
+
+    private void deleteBlobFile(String hash) {
+        Path blobPath = blobPath(hash);
+        try {
+            Files.deleteIfExists(blobPath);
+        } catch (IOException e) {
+            // Left for sweep, the row still says it is unreferenced
+            log.warn("Could not delete attachment blob {}", blobPath, e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.pl03.kanban.services.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pl03.kanban.kanban_entities.BoardCollaborators;
+import com.pl03.kanban.kanban_entities.repositories.BoardRepository;
+import com.pl03.kanban.utils.TransactionUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Caches the effective access right of a requester on a board, keyed by (boardId, oid).
+// Every task/status/collaborator endpoint starts with an access check, so this saves
+// the access query on most requests.
+@Component
+public class BoardAccessCache {
+
+    private final BoardRepository boardRepository;
+    private final Cache<Key, EffectiveRight> cache;
+
+    @Autowired
+    public BoardAccessCache(BoardRepository boardRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${kanban.access-cache.max-size:10000}") long maxSize,
+                            @Value("${kanban.access-cache.ttl:60s}") Duration ttl) {
+        this.boardRepository = boardRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "boardAccess");
+    }
+
+    public EffectiveRight getEffectiveRight(String boardId, String oid) {
+        // A missing board is not cached, the loader throws and the caller gets the 404
+        return cache.get(new Key(boardId, oid), key -> BoardServiceImpl.resolveEffectiveRight(key.boardId(), key.oid(), boardRepository));
+    }
+
+    // Call when a single user's right on the board changes (collaborator added, accepted, declined, updated, removed)
+    public void evict(String boardId, String oid) {
+        TransactionUtils.runNowAndAfterCommit(() -> cache.invalidate(new Key(boardId, oid)));
+    }
+
+    // Call when the right of every requester may change (visibility change)
+    public void evictBoard(String boardId) {
+        TransactionUtils.runNowAndAfterCommit(() ->
+                cache.asMap().keySet().removeIf(key -> key.boardId().equals(boardId)));
+    }
+
+    // oid is null for anonymous requests
+    private record Key(String boardId, String oid) {
+    }
+
+    public enum EffectiveRight {
+        NONE, READ, WRITE, OWNER, PENDING;
+
+        public boolean canRead() {
+            return this == READ || this == WRITE || this == OWNER;
+        }
+
+        public boolean canWrite() {
+            return this == WRITE || this == OWNER;
+        }
+
+        static EffectiveRight of(BoardCollaborators.AccessRight accessRight) {
+            return switch (accessRight) {
+                case READ -> READ;
+                case WRITE -> WRITE;
+                case PENDING -> PENDING;
+            };
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.pl03.kanban.services.impl;
+
+import com.pl03.kanban.dtos.BoardChangesDto;
+import com.pl03.kanban.events.BoardChangeEvent;
+import com.pl03.kanban.exceptions.InvalidBoardFieldException;
+import com.pl03.kanban.exceptions.ItemNotFoundException;
+import com.pl03.kanban.kanban_entities.BoardChange;
+import com.pl03.kanban.kanban_entities.repositories.BoardChangeRepository;
+import com.pl03.kanban.kanban_entities.repositories.BoardRepository;
+import com.pl03.kanban.services.BoardChangeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.*;
+
+@Service
+public class BoardChangeServiceImpl implements BoardChangeService {
+
+    // Above this many changes the delta is no cheaper than a full refetch
+    private static final int MAX_CHANGES_PER_DELTA = 5000;
+
+    private final BoardChangeRepository boardChangeRepository;
+    private final BoardRepository boardRepository;
+    private final BoardAccessCache boardAccessCache;
+    private final BoardEventBroadcaster boardEventBroadcaster;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public BoardChangeServiceImpl(BoardChangeRepository boardChangeRepository, BoardRepository boardRepository, BoardAccessCache boardAccessCache,
+                                  BoardEventBroadcaster boardEventBroadcaster, ApplicationEventPublisher eventPublisher) {
+        this.boardChangeRepository = boardChangeRepository;
+        this.boardRepository = boardRepository;
+        this.boardAccessCache = boardAccessCache;
+        this.boardEventBroadcaster = boardEventBroadcaster;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    @Transactional(transactionManager = "kanbanTransactionManager", propagation = Propagation.MANDATORY)
+    public void recordChange(String boardId, BoardChange.EntityType entityType, int entityId, boolean deleted) {
+        List<Integer> ids = List.of(entityId);
+        recordChanges(boardId, entityType, deleted ? List.of() : ids, deleted ? ids : List.of());
+    }
+
+    @Override
+    @Transactional(transactionManager = "kanbanTransactionManager", propagation = Propagation.MANDATORY)
+    public void recordChanges(String boardId, BoardChange.EntityType entityType, Collection<Integer> upsertedIds, Collection<Integer> deletedIds) {
+        if (entityType == BoardChange.EntityType.TASK) {
+            recordChanges(boardId, upsertedIds, deletedIds, List.of(), List.of());
+        } else {
+            recordChanges(boardId, List.of(), List.of(), upsertedIds, deletedIds);
+        }
+    }
+
+    // Must run inside the writing transaction, so the change log commits or rolls back with the change itself.
+    // Call it after the writes, the version bump locks the board row until commit.
+    // Everything passed in one call shares one version and one event.
+    @Override
+    @Transactional(transactionManager = "kanbanTransactionManager", propagation = Propagation.MANDATORY)
+    public void recordChanges(String boardId, Collection<Integer> upsertedTaskIds, Collection<Integer> deletedTaskIds,
+                              Collection<Integer> upsertedStatusIds, Collection<Integer> deletedStatusIds) {
+        int count = upsertedTaskIds.size() + deletedTaskIds.size() + upsertedStatusIds.size() + deletedStatusIds.size();
+        if (count == 0) {
+            return;
+        }
+
+        boardRepository.incrementChangeVersion(boardId);
+        long version = boardRepository.findChangeVersion(boardId)
+                .orElseThrow(() -> new ItemNotFoundException("Board with id " + boardId + " does not exist"));
+
+        List<BoardChange> changes = new ArrayList<>(count);
+        upsertedTaskIds.forEach(id -> changes.add(new BoardChange(boardId, version, BoardChange.EntityType.TASK, id, false)));
+        deletedTaskIds.forEach(id -> changes.add(new BoardChange(boardId, version, BoardChange.EntityType.TASK, id, true)));
+        upsertedStatusIds.forEach(id -> changes.add(new BoardChange(boardId, version, BoardChange.EntityType.STATUS, id, false)));
+        deletedStatusIds.forEach(id -> changes.add(new BoardChange(boardId, version, BoardChange.EntityType.STATUS, id, true)));
+        boardChangeRepository.saveAll(changes);
+
+        // Delivered to event stream subscribers once the transaction commits
+        eventPublisher.publishEvent(new BoardChangeEvent(boardId, version, List.copyOf(upsertedTaskIds), List.copyOf(deletedTaskIds),
+                List.copyOf(upsertedStatusIds), List.copyOf(deletedStatusIds)));
+    }
+
+    @Override
+    @Transactional(readOnly = true, transactionManager = "kanbanTransactionManager")
+    public BoardChangesDto getChangesSince(String boardId, long since, String requesterOid) {
+        BoardServiceImpl.getBoardAndCheckAccess(boardId, requesterOid, boardAccessCache);
+
+        if (since < 0) {
+            throw new InvalidBoardFieldException("since must not be negative", null);
+        }
+
+        long version = boardRepository.findChangeVersion(boardId)
+                .orElseThrow(() -> new ItemNotFoundException("Board with id " + boardId + " does not exist"));
+
+        // A version from the future means the client's state did not come from this board
+        if (since > version) {
+            return resync(version);
+        }
+
+        List<BoardChangeRepository.ChangeView> changes =
+                boardChangeRepository.findChanges(boardId, since, version, PageRequest.of(0, MAX_CHANGES_PER_DELTA + 1));
+        if (changes.size() > MAX_CHANGES_PER_DELTA) {
+            return resync(version);
+        }
+
+        // Only the latest change of each entity counts, a task created then deleted is reported as deleted
+        Map<Integer, Boolean> tasks = new LinkedHashMap<>();
+        Map<Integer, Boolean> statuses = new LinkedHashMap<>();
+        for (BoardChangeRepository.ChangeView change : changes) {
+            Map<Integer, Boolean> target = change.getEntityType() == BoardChange.EntityType.TASK ? tasks : statuses;
+            target.remove(change.getEntityId());
+            target.put(change.getEntityId(), change.getDeleted());
+        }
+
+        return new BoardChangesDto(version, false,
+                idsWhere(tasks, false), idsWhere(tasks, true),
+                idsWhere(statuses, false), idsWhere(statuses, true));
+    }
+
+    @Override
+    public SseEmitter subscribe(String boardId, String requesterOid) {
+        return boardEventBroadcaster.subscribe(boardId, requesterOid);
+    }
+
+    private static BoardChangesDto resync(long version) {
+        return new BoardChangesDto(version, true, List.of(), List.of(), List.of(), List.of());
+    }
+
+    private static List<Integer> idsWhere(Map<Integer, Boolean> latest, boolean deleted) {
+        List<Integer> ids = new ArrayList<>();
+        latest.forEach((id, isDeleted) -> {
+            if (isDeleted == deleted) {
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+}
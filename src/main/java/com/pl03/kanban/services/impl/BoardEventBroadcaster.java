@@ -0,0 +1,214 @@
+package com.pl03.kanban.services.impl;
+
+import com.pl03.kanban.events.BoardAccessChangedEvent;
+import com.pl03.kanban.events.BoardChangeEvent;
+import com.pl03.kanban.exceptions.ItemNotFoundException;
+import com.pl03.kanban.kanban_entities.repositories.BoardRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Pushes board changes to Server-Sent Events subscribers.
+// An idle subscriber is an open async request and a small queue, no thread is held. Sends are done on a
+// small shared pool, and a subscriber that falls behind by more than its buffer is disconnected; it
+// reconnects and catches up with GET /v3/boards/{id}/changes.
+@Component
+public class BoardEventBroadcaster {
+
+    private final BoardRepository boardRepository;
+    private final BoardAccessCache boardAccessCache;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final ExecutorService sender;
+    private final Map<String, Set<Subscriber>> subscribersByBoard = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BoardEventBroadcaster(BoardRepository boardRepository,
+                                 BoardAccessCache boardAccessCache,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${kanban.events.buffer-size:64}") int bufferSize,
+                                 @Value("${kanban.events.timeout:30m}") Duration timeout,
+                                 @Value("${kanban.events.sender-threads:4}") int senderThreads) {
+        this.boardRepository = boardRepository;
+        this.boardAccessCache = boardAccessCache;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+        this.sender = Executors.newFixedThreadPool(senderThreads, new CustomizableThreadFactory("board-events-"));
+        Gauge.builder("kanban.events.subscribers", subscribersByBoard,
+                        boards -> boards.values().stream().mapToInt(Set::size).sum())
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(String boardId, String oid) {
+        // Same rule as every other board read, checked before the stream opens so errors keep their status code
+        BoardServiceImpl.getBoardAndCheckAccess(boardId, oid, boardAccessCache);
+        long version = boardRepository.findChangeVersion(boardId)
+                .orElseThrow(() -> new ItemNotFoundException("Board with id " + boardId + " does not exist"));
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(boardId, oid, emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        subscribersByBoard.compute(boardId, (id, subscribers) -> {
+            Set<Subscriber> boardSubscribers = subscribers == null ? ConcurrentHashMap.newKeySet() : subscribers;
+            boardSubscribers.add(subscriber);
+            return boardSubscribers;
+        });
+
+        // The client syncs from this version if it missed anything before connecting
+        subscriber.offer(SseEmitter.event().name("ready").data(Map.of("version", version)));
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBoardChange(BoardChangeEvent event) {
+        Set<Subscriber> subscribers = subscribersByBoard.get(event.boardId());
+        if (subscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(SseEmitter.event().name("change").id(Long.toString(event.version())).data(event));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccessChanged(BoardAccessChangedEvent event) {
+        Set<Subscriber> subscribers = subscribersByBoard.get(event.boardId());
+        if (subscribers == null) {
+            return;
+        }
+        // Resolved once per requester, from the database rather than the cache since the committed right is what counts
+        Map<String, Boolean> canReadByOid = new HashMap<>();
+        for (Subscriber subscriber : subscribers) {
+            if (event.oid() != null && !event.oid().equals(subscriber.oid)) {
+                subscriber.offer(SseEmitter.event().name("collaborator").data(Map.of("oid", event.oid())));
+                continue;
+            }
+            boolean canRead = canReadByOid.computeIfAbsent(subscriber.oid, oid -> {
+                try {
+                    return BoardServiceImpl.resolveEffectiveRight(event.boardId(), oid, boardRepository).canRead();
+                } catch (ItemNotFoundException e) {
+                    return false;
+                }
+            });
+            if (canRead) {
+                if (event.oid() != null) {
+                    subscriber.offer(SseEmitter.event().name("collaborator").data(Map.of("oid", event.oid())));
+                }
+            } else {
+                subscriber.disconnect();
+            }
+        }
+    }
+
+    // Comment line so proxies and load balancers do not drop idle connections, and dead clients are found
+    @Scheduled(fixedDelayString = "${kanban.events.heartbeat:PT25S}")
+    public void heartbeat() {
+        for (Set<Subscriber> subscribers : subscribersByBoard.values()) {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offerIfIdle(SseEmitter.event().comment("heartbeat"));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        subscribersByBoard.values().forEach(subscribers -> subscribers.forEach(Subscriber::disconnect));
+    }
+
+    private final class Subscriber {
+        private final String boardId;
+        private final String oid; // null for anonymous subscribers of a public board
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(String boardId, String oid, SseEmitter emitter) {
+            this.boardId = boardId;
+            this.oid = oid;
+            this.emitter = emitter;
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                // Too slow to keep up, drop the connection rather than buffer without bound
+                disconnect();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        void offerIfIdle(SseEmitter.SseEventBuilder event) {
+            if (queue.isEmpty()) {
+                offer(event);
+            }
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    disconnect();
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed.get() && (event = queue.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+            } finally {
+                draining.set(false);
+            }
+            // An event may have been queued after the last poll but before the flag was cleared
+            if (!closed.get() && !queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        void disconnect() {
+            close();
+            try {
+                emitter.complete();
+            } catch (IllegalStateException ignored) {
+                // already completed
+            }
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                queue.clear();
+                subscribersByBoard.computeIfPresent(boardId, (id, subscribers) -> {
+                    subscribers.remove(this);
+                    return subscribers.isEmpty() ? null : subscribers;
+                });
+            }
+        }
+    }
+}
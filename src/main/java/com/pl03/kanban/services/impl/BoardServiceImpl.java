@@ -2,6 +2,8 @@ package com.pl03.kanban.services.impl;
 
 import com.pl03.kanban.dtos.BoardRequest;
 import com.pl03.kanban.dtos.BoardResponse;
+import com.pl03.kanban.dtos.CursorPage;
+import com.pl03.kanban.events.BoardAccessChangedEvent;
 import com.pl03.kanban.exceptions.*;
 import com.pl03.kanban.kanban_entities.*;
 import com.pl03.kanban.kanban_entities.repositories.BoardCollaboratorsRepository;
@@ -9,13 +11,20 @@ import com.pl03.kanban.kanban_entities.repositories.BoardRepository;
 import com.pl03.kanban.kanban_entities.repositories.UsersRepository;
 import com.pl03.kanban.services.BoardService;
 import com.pl03.kanban.services.StatusService;
+import com.pl03.kanban.utils.KeysetCursor;
 import jakarta.validation.constraints.NotNull;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -30,17 +39,22 @@ public class BoardServiceImpl implements BoardService {
     private final BoardCollaboratorsRepository boardCollaboratorsRepository;
     private final ModelMapper modelMapper;
     private final StatusService statusService;
+    private final BoardAccessCache boardAccessCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final int MAX_BOARD_NAME_LENGTH = 120;
+    private static final int MAX_BOARD_PAGE_SIZE = 100;
 
 
     @Autowired
-    public BoardServiceImpl(BoardRepository boardRepository, UsersRepository usersRepository, BoardCollaboratorsRepository boardCollaboratorsRepository, ModelMapper modelMapper, StatusService statusService) {
+    public BoardServiceImpl(BoardRepository boardRepository, UsersRepository usersRepository, BoardCollaboratorsRepository boardCollaboratorsRepository, ModelMapper modelMapper, StatusService statusService, BoardAccessCache boardAccessCache, ApplicationEventPublisher eventPublisher) {
         this.boardRepository = boardRepository;
         this.usersRepository = usersRepository;
         this.boardCollaboratorsRepository = boardCollaboratorsRepository;
         this.modelMapper = modelMapper;
         this.statusService = statusService;
+        this.boardAccessCache = boardAccessCache;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -114,17 +128,52 @@ public class BoardServiceImpl implements BoardService {
     @Override
     @Transactional(readOnly = true, transactionManager = "kanbanTransactionManager")
     public List<BoardResponse> getAllBoards(String requesterOid) {
-        return boardRepository.findAll().stream()
-                .filter(board ->
-                        board.getVisibility() == Board.Visibility.PUBLIC || // Include public boards
-                                (requesterOid != null && (
-                                        board.getUser().getOid().equals(requesterOid) || // Include boards owned by the requester
-                                                boardCollaboratorsRepository.existsByBoardIdAndUserOid(
-                                                        board.getId(), requesterOid)
-                                )) // Include boards where the requester is also PENDING collab
-                )
-                .map(board -> createBoardResponse(board, board.getUser().getName())) // Map to response
-                .collect(Collectors.toList()); // Collect to list
+        // Public, owned and collaborated boards with their collaborators, in one query
+        return boardRepository.findVisibleBoards(requesterOid).stream()
+                .map(board -> createBoardResponse(board, board.getUser().getName()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true, transactionManager = "kanbanTransactionManager")
+    public CursorPage<BoardResponse> getBoardsPage(String requesterOid, int limit, String cursor) {
+        if (limit < 1 || limit > MAX_BOARD_PAGE_SIZE) {
+            throw new InvalidBoardFieldException("limit must be between 1 and " + MAX_BOARD_PAGE_SIZE, null);
+        }
+
+        // Fetch one extra id to know whether there is a next page
+        Pageable pageable = PageRequest.of(0, limit + 1);
+        List<String> ids;
+        if (cursor == null || cursor.isEmpty()) {
+            ids = boardRepository.findVisibleBoardIds(requesterOid, pageable);
+        } else {
+            Timestamp afterCreatedOn;
+            String afterId;
+            try {
+                String[] parts = KeysetCursor.decode(cursor, 2);
+                afterCreatedOn = Timestamp.from(Instant.parse(parts[0]));
+                afterId = parts[1];
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw new InvalidBoardFieldException("Invalid cursor", null);
+            }
+            ids = boardRepository.findVisibleBoardIdsAfter(requesterOid, afterCreatedOn, afterId, pageable);
+        }
+
+        boolean hasMore = ids.size() > limit;
+        List<Board> boards = ids.isEmpty()
+                ? Collections.emptyList()
+                : boardRepository.findWithCollaboratorsByIdIn(hasMore ? ids.subList(0, limit) : ids);
+
+        List<BoardResponse> responses = boards.stream()
+                .map(board -> createBoardResponse(board, board.getUser().getName()))
+                .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (hasMore) {
+            Board last = boards.get(boards.size() - 1);
+            nextCursor = KeysetCursor.encode(last.getCreatedOn().toInstant().toString(), last.getId());
+        }
+        return new CursorPage<>(responses, nextCursor);
     }
 
     @Override
@@ -165,38 +214,50 @@ public class BoardServiceImpl implements BoardService {
 
         // Save and return the updated board
         Board updatedBoard = boardRepository.save(board);
+        boardAccessCache.evictBoard(boardId); // visibility changes the right of every requester
+        eventPublisher.publishEvent(new BoardAccessChangedEvent(boardId, null));
         return createBoardResponse(updatedBoard, updatedBoard.getUser().getName());
     }
 
-    static void getBoardAndCheckAccess(String boardId, String userId, BoardRepository boardRepository, BoardCollaboratorsRepository boardCollaboratorsRepository) {
-        Board board = boardRepository.findById(boardId)
+    // Resolve the requester's right with a single query instead of loading the board and its collaborator row
+    static BoardAccessCache.EffectiveRight resolveEffectiveRight(String boardId, String oid, BoardRepository boardRepository) {
+        BoardRepository.BoardAccessView access = boardRepository.findAccessView(boardId, oid)
                 .orElseThrow(() -> new ItemNotFoundException("Board with id " + boardId + " does not exist"));
 
-        if (board.getVisibility() != Board.Visibility.PUBLIC &&
-                !board.getUser().getOid().equals(userId) && // Check ownership
-                !boardCollaboratorsRepository.existsByBoardIdAndUserOidAndAccessRightNot(
-                        boardId, userId, BoardCollaborators.AccessRight.PENDING)) { // Check is a valid collaborator
+        if (oid != null && oid.equals(access.getOwnerOid())) {
+            return BoardAccessCache.EffectiveRight.OWNER;
+        }
+
+        BoardAccessCache.EffectiveRight right = access.getCollaboratorAccessRight() == null
+                ? BoardAccessCache.EffectiveRight.NONE
+                : BoardAccessCache.EffectiveRight.of(access.getCollaboratorAccessRight());
+
+        // Everyone without a real right can still read a public board
+        if (access.getVisibility() == Board.Visibility.PUBLIC
+                && (right == BoardAccessCache.EffectiveRight.NONE || right == BoardAccessCache.EffectiveRight.PENDING)) {
+            return BoardAccessCache.EffectiveRight.READ;
+        }
+        return right;
+    }
+
+    static void getBoardAndCheckAccess(String boardId, String userId, BoardAccessCache boardAccessCache) {
+        if (!boardAccessCache.getEffectiveRight(boardId, userId).canRead()) { // public, owner or non-pending collaborator
             throw new UnauthorizedAccessException("Access to this board is restricted", null);
         }
     }
 
     @NotNull
-    public static Board validateBoardAccessAndOwnerShip(String boardId, String userId, BoardRepository boardRepository, BoardCollaboratorsRepository boardCollaboratorsRepository) {
-        Board board = boardRepository.findById(boardId)
-                .orElseThrow(() -> new ItemNotFoundException("Board with id " + boardId + " does not exist"));
-
-        if (!board.getUser().getOid().equals(userId)) {
-            // Check if the user is a collaborator with write access
-            Optional<BoardCollaborators> collaborator = boardCollaboratorsRepository.findByBoardIdAndUserOid(boardId, userId);
-            if (collaborator.isEmpty() || collaborator.get().getAccessRight() != BoardCollaborators.AccessRight.WRITE) {
-                throw new UnauthorizedAccessException("Only the board owner or collaborators with WRITE access can perform this operation", null);
-            }
+    public static Board validateBoardAccessAndOwnerShip(String boardId, String userId, BoardRepository boardRepository, BoardAccessCache boardAccessCache) {
+        // Only the owner or a collaborator with write access can pass
+        if (!boardAccessCache.getEffectiveRight(boardId, userId).canWrite()) {
+            throw new UnauthorizedAccessException("Only the board owner or collaborators with WRITE access can perform this operation", null);
         }
 
-        return board;
+        // The board is known to exist at this point, so a reference is enough for associating it
+        return boardRepository.getReferenceById(boardId);
     }
 
-    private BoardResponse createBoardResponse(Board board, String ownerName) {
+    static BoardResponse createBoardResponse(Board board, String ownerName) {
         BoardResponse response = new BoardResponse();
         response.setId(board.getId());
         response.setName(board.getName());
@@ -2,6 +2,7 @@ package com.pl03.kanban.services.impl;
 
 import com.pl03.kanban.dtos.CollaboratorRequest;
 import com.pl03.kanban.dtos.CollaboratorResponse;
+import com.pl03.kanban.events.BoardAccessChangedEvent;
 import com.pl03.kanban.exceptions.*;
 import com.pl03.kanban.kanban_entities.Board;
 import com.pl03.kanban.kanban_entities.BoardCollaborators;
@@ -12,9 +13,9 @@ import com.pl03.kanban.kanban_entities.repositories.BoardRepository;
 import com.pl03.kanban.kanban_entities.repositories.UsersRepository;
 import com.pl03.kanban.services.CollaboratorService;
 import com.pl03.kanban.user_entities.User;
-import com.pl03.kanban.user_entities.UserRepository;
 import com.pl03.kanban.utils.WebUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
@@ -48,35 +49,31 @@ public class CollaboratorServiceImpl implements CollaboratorService {
         loadTempAccessRightsFromFile(); // initialize when restart
     }
 
-    private final UserRepository userRepository;
+    private final UserDirectory userDirectory;
     private final UsersRepository usersRepository;
     private final WebUtils webUtils;
+    private final BoardAccessCache boardAccessCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public CollaboratorServiceImpl(BoardRepository boardRepository, BoardCollaboratorsRepository boardCollaboratorsRepository, JavaMailSender javaMailSender, UserRepository userRepository, UsersRepository usersRepository, WebUtils webUtils) {
+    public CollaboratorServiceImpl(BoardRepository boardRepository, BoardCollaboratorsRepository boardCollaboratorsRepository, JavaMailSender javaMailSender, UserDirectory userDirectory, UsersRepository usersRepository, WebUtils webUtils, BoardAccessCache boardAccessCache, ApplicationEventPublisher eventPublisher) {
         this.boardRepository = boardRepository;
         this.boardCollaboratorsRepository = boardCollaboratorsRepository;
         this.javaMailSender = javaMailSender;
-        this.userRepository = userRepository;
+        this.userDirectory = userDirectory;
         this.usersRepository = usersRepository;
         this.webUtils = webUtils;
+        this.boardAccessCache = boardAccessCache;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     public List<CollaboratorResponse> getBoardCollaborators(String boardId, String requesterOid) {
 //        getBoardAndCheckAccess(boardId, requesterOid, boardRepository, boardCollaboratorsRepository);
 
-        Board board = boardRepository.findById(boardId)
-                .orElseThrow(() -> new ItemNotFoundException("Board with id " + boardId + " does not exist"));
-
-        boolean isCollaborator = requesterOid != null &&
-                boardCollaboratorsRepository.existsByBoardIdAndUserOid(
-                        board.getId(),
-                        requesterOid
-                ); //check for collaborator (allow pending because the invitation link)
-        boolean isOwner = requesterOid != null && board.getUser().getOid().equals(requesterOid);
-        boolean isPublic = board.getVisibility() == Board.Visibility.PUBLIC;
-        if (isCollaborator || isOwner || isPublic) {
+        // Public board, owner or collaborator (allow pending because the invitation link)
+        boolean hasAccess = boardAccessCache.getEffectiveRight(boardId, requesterOid) != BoardAccessCache.EffectiveRight.NONE;
+        if (hasAccess) {
             List<BoardCollaborators> collaborators = boardCollaboratorsRepository.findByBoardId(boardId);
 
             return collaborators.stream()
@@ -101,18 +98,10 @@ public class CollaboratorServiceImpl implements CollaboratorService {
     @Override
     public CollaboratorResponse getBoardCollaboratorByOid(String boardId, String collabOid, String requesterOid) {
 
-        Board board = boardRepository.findById(boardId)
-                .orElseThrow(() -> new ItemNotFoundException("Board with id " + boardId + " does not exist"));
-
-        boolean isCollaborator = requesterOid != null &&
-                boardCollaboratorsRepository.existsByBoardIdAndUserOid(
-                        board.getId(),
-                        requesterOid
-                ); //check for collaborator (allow pending because the invitation link)
-        boolean isPublic = board.getVisibility() == Board.Visibility.PUBLIC;
-        boolean isOwner = requesterOid != null && board.getUser().getOid().equals(requesterOid);
+        // Public board, owner or collaborator (allow pending because the invitation link)
+        boolean hasAccess = boardAccessCache.getEffectiveRight(boardId, requesterOid) != BoardAccessCache.EffectiveRight.NONE;
 
-        if (isCollaborator || isOwner || isPublic) {
+        if (hasAccess) {
             BoardCollaborators collaborator = boardCollaboratorsRepository.findByBoardIdAndUserOid(boardId, collabOid)
                     .orElseThrow(() -> new ItemNotFoundException("Collaborator not found"));
 
@@ -154,8 +143,8 @@ public class CollaboratorServiceImpl implements CollaboratorService {
             throw new InvalidBoardFieldException("Access right must be provided", null);
         }
 
-        // Fetch user from the shared database
-        User authenticatedUser = userRepository.findByEmail(request.getEmail())
+        // Fetch user from the replica of the shared database
+        User authenticatedUser = userDirectory.findByEmail(request.getEmail())
                 .orElseThrow(() -> new ItemNotFoundException("User not found with email: " + request.getEmail()));
 
         Users users = usersRepository.findByEmail(authenticatedUser.getEmail())
@@ -196,6 +185,8 @@ public class CollaboratorServiceImpl implements CollaboratorService {
         collaborator.setName(users.getName());
         collaborator.setEmail(users.getEmail());
         boardCollaboratorsRepository.save(collaborator);
+        boardAccessCache.evict(boardId, users.getOid());
+        eventPublisher.publishEvent(new BoardAccessChangedEvent(boardId, users.getOid()));
 
         // Send invitation email
         sendInvitationEmail(board, request, users);
@@ -255,6 +246,8 @@ public class CollaboratorServiceImpl implements CollaboratorService {
 
         // Save the updated collaborator
         boardCollaboratorsRepository.save(collaborator);
+        boardAccessCache.evict(boardId, userOid);
+        eventPublisher.publishEvent(new BoardAccessChangedEvent(boardId, userOid));
 
         // remove the entry from the map (if it's no longer needed)
         tempAccessRights.remove(boardId + "-" + userOid);
@@ -279,6 +272,8 @@ public class CollaboratorServiceImpl implements CollaboratorService {
         }
 
         boardCollaboratorsRepository.delete(collaborator);
+        boardAccessCache.evict(boardId, userOid);
+        eventPublisher.publishEvent(new BoardAccessChangedEvent(boardId, userOid));
         tempAccessRights.remove(boardId + "-" + userOid);
         saveTempAccessRightsToFile();
     }
@@ -332,6 +327,8 @@ public class CollaboratorServiceImpl implements CollaboratorService {
 
         collaborator.setAccessRight(newAccessRight);
         BoardCollaborators updatedCollaborator = boardCollaboratorsRepository.save(collaborator);
+        boardAccessCache.evict(boardId, collabOid);
+        eventPublisher.publishEvent(new BoardAccessChangedEvent(boardId, collabOid));
         return mapToCollaboratorResponse(updatedCollaborator);
     }
 
@@ -409,6 +406,8 @@ public class CollaboratorServiceImpl implements CollaboratorService {
                 .orElseThrow(() -> new ItemNotFoundException("Collaborator not found"));
 
         boardCollaboratorsRepository.delete(collaborator);
+        boardAccessCache.evict(boardId, collabOid);
+        eventPublisher.publishEvent(new BoardAccessChangedEvent(boardId, collabOid));
     }
 
     public void sendSimpleEmail(String toEmail, String subject, String body) {
@@ -422,10 +421,7 @@ public class CollaboratorServiceImpl implements CollaboratorService {
     }
 
     private void getBoardAndCheckOwnership(String boardId, String requesterOid) {
-        Board board = boardRepository.findById(boardId)
-                .orElseThrow(() -> new ItemNotFoundException("Board not found"));
-
-        if (!board.getUser().getOid().equals(requesterOid)) {
+        if (boardAccessCache.getEffectiveRight(boardId, requesterOid) != BoardAccessCache.EffectiveRight.OWNER) {
             throw new UnauthorizedAccessException("Only the board owner can perform this action", null);
         }
     }
@@ -0,0 +1,145 @@
+package com.pl03.kanban.services.impl;
+
+import com.pl03.kanban.kanban_entities.FileDeletion;
+import com.pl03.kanban.kanban_entities.repositories.FileDeletionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Transactional outbox for removing attachment files. Deleting a task or attachment only writes file_deletion rows in
+// its own transaction, so a rollback keeps the files and the request never waits on the filesystem. A scheduled worker
+// removes the files after commit in batches: failures are retried with a doubling backoff, and rows that use up
+// kanban.file-deletion.max-attempts stay in the table for an operator. Removing a file twice is harmless, so
+// several instances can share the outbox.
+@Slf4j
+@Component
+public class FileDeletionOutbox {
+
+    private final FileDeletionRepository fileDeletionRepository;
+    private final AttachmentBlobStore attachmentBlobStore;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration maxRetryBackoff;
+    private final Timer batchTimer;
+    private final Counter deletedCounter;
+    private final Counter failedCounter;
+    private final Counter abandonedCounter;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong stuck = new AtomicLong();
+
+    @Autowired
+    public FileDeletionOutbox(FileDeletionRepository fileDeletionRepository,
+                              AttachmentBlobStore attachmentBlobStore,
+                              MeterRegistry meterRegistry,
+                              @Value("${kanban.file-deletion.batch-size:100}") int batchSize,
+                              @Value("${kanban.file-deletion.max-attempts:10}") int maxAttempts,
+                              @Value("${kanban.file-deletion.retry-backoff:PT30S}") Duration retryBackoff,
+                              @Value("${kanban.file-deletion.max-retry-backoff:PT1H}") Duration maxRetryBackoff) {
+        this.fileDeletionRepository = fileDeletionRepository;
+        this.attachmentBlobStore = attachmentBlobStore;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.maxRetryBackoff = maxRetryBackoff;
+        this.batchTimer = Timer.builder("kanban.file-deletion.batch").register(meterRegistry);
+        this.deletedCounter = Counter.builder("kanban.file-deletion.deleted").register(meterRegistry);
+        this.failedCounter = Counter.builder("kanban.file-deletion.failed").register(meterRegistry);
+        this.abandonedCounter = Counter.builder("kanban.file-deletion.abandoned").register(meterRegistry);
+        Gauge.builder("kanban.file-deletion.pending", pending, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("kanban.file-deletion.stuck", stuck, AtomicLong::get).register(meterRegistry);
+    }
+
+    // Both must run inside the transaction that deletes the file's metadata
+    public void enqueuePath(String path) {
+        fileDeletionRepository.save(FileDeletion.ofPath(path));
+    }
+
+    public void enqueueBlob(String contentHash) {
+        fileDeletionRepository.save(FileDeletion.ofBlob(contentHash));
+    }
+
+    @Scheduled(fixedDelayString = "${kanban.file-deletion.interval:PT5S}")
+    public void processPending() {
+        try {
+            // Full batches are followed by another one right away
+            int processed;
+            do {
+                Timer.Sample sample = Timer.start();
+                processed = processBatch();
+                sample.stop(batchTimer);
+            } while (processed == batchSize);
+            pending.set(fileDeletionRepository.countByAttemptsLessThan(maxAttempts));
+            stuck.set(fileDeletionRepository.countByAttemptsGreaterThanEqual(maxAttempts));
+        } catch (RuntimeException e) {
+            log.warn("File deletion outbox could not be processed", e);
+        }
+    }
+
+    // Returns the number of rows picked up
+    private int processBatch() {
+        List<FileDeletion> due = fileDeletionRepository.findDue(new Timestamp(System.currentTimeMillis()), maxAttempts,
+                PageRequest.of(0, batchSize));
+
+        List<Long> done = new ArrayList<>(due.size());
+        List<FileDeletion> failed = new ArrayList<>();
+        for (FileDeletion fileDeletion : due) {
+            try {
+                if (fileDeletion.getContentHash() != null) {
+                    // Skipped when the content was referenced again since the row was written
+                    attachmentBlobStore.deleteIfUnreferenced(fileDeletion.getContentHash());
+                } else {
+                    Files.deleteIfExists(Paths.get(fileDeletion.getPath()).normalize());
+                }
+                done.add(fileDeletion.getId());
+            } catch (Exception e) {
+                fileDeletion.setAttempts(fileDeletion.getAttempts() + 1);
+                fileDeletion.setLastError(truncate(e.toString()));
+                fileDeletion.setNextAttemptAt(new Timestamp(System.currentTimeMillis() + backoff(fileDeletion.getAttempts()).toMillis()));
+                failed.add(fileDeletion);
+                failedCounter.increment();
+                if (fileDeletion.getAttempts() >= maxAttempts) {
+                    abandonedCounter.increment();
+                    log.warn("Giving up on deleting {} after {} attempts", describe(fileDeletion), maxAttempts, e);
+                }
+            }
+        }
+
+        if (!done.isEmpty()) {
+            fileDeletionRepository.deleteAllByIdInBatch(done);
+            deletedCounter.increment(done.size());
+        }
+        if (!failed.isEmpty()) {
+            fileDeletionRepository.saveAll(failed);
+        }
+        return due.size();
+    }
+
+    private Duration backoff(int attempts) {
+        Duration backoff = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return backoff.compareTo(maxRetryBackoff) > 0 ? maxRetryBackoff : backoff;
+    }
+
+    private static String describe(FileDeletion fileDeletion) {
+        return fileDeletion.getContentHash() != null ? "attachment blob " + fileDeletion.getContentHash() : fileDeletion.getPath();
+    }
+
+    private static String truncate(String message) {
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+}
@@ -1,5 +1,8 @@
 package com.pl03.kanban.services.impl;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pl03.kanban.dtos.AttachmentManifest;
 import com.pl03.kanban.exceptions.ConflictException;
 import com.pl03.kanban.exceptions.InvalidFileException;
 import com.pl03.kanban.exceptions.ItemNotFoundException;
@@ -8,40 +11,66 @@ import com.pl03.kanban.kanban_entities.TaskV3;
 import com.pl03.kanban.kanban_entities.repositories.FileStorageRepository;
 import com.pl03.kanban.kanban_entities.repositories.TaskV3Repository;
 import com.pl03.kanban.services.FileStorageService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.java.Log;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.tomcat.util.http.fileupload.FileItemIterator;
+import org.apache.tomcat.util.http.fileupload.FileItemStream;
+import org.apache.tomcat.util.http.fileupload.FileUpload;
+import org.apache.tomcat.util.http.fileupload.impl.FileSizeLimitExceededException;
+import org.apache.tomcat.util.http.fileupload.impl.FileUploadIOException;
+import org.apache.tomcat.util.http.fileupload.servlet.ServletRequestContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @Transactional(transactionManager = "kanbanTransactionManager")
 public class FileStorageServiceImpl implements FileStorageService {
     private final Path fileStorageLocation;
     private final FileStorageRepository fileStorageRepository;
     private final TaskV3Repository taskV3Repository;
+    private final AttachmentBlobStore attachmentBlobStore;
+    private final FileDeletionOutbox fileDeletionOutbox;
+    // New files go to the content-addressed blob store, files stored before keep their own path
+    private final boolean contentAddressed;
+    private final ObjectMapper objectMapper;
 
     public static final int MAX_FILES = 10;
     private static final long MAX_FILE_SIZE = 20 * 1024 * 1024; // 20MB
+    private static final Pattern SHA_256_HEX = Pattern.compile("[0-9a-f]{64}");
 
     @Autowired
-    public FileStorageServiceImpl(FileStorageRepository fileStorageRepository, TaskV3Repository taskV3Repository) {
+    public FileStorageServiceImpl(FileStorageRepository fileStorageRepository, TaskV3Repository taskV3Repository,
+                                  AttachmentBlobStore attachmentBlobStore, FileDeletionOutbox fileDeletionOutbox,
+                                  @Value("${kanban.attachments.content-addressed:true}") boolean contentAddressed,
+                                  ObjectMapper objectMapper) {
         this.fileStorageRepository = fileStorageRepository;
         this.taskV3Repository = taskV3Repository;
+        this.attachmentBlobStore = attachmentBlobStore;
+        this.fileDeletionOutbox = fileDeletionOutbox;
+        this.contentAddressed = contentAddressed;
+        this.objectMapper = objectMapper;
         this.fileStorageLocation = Paths.get("task-attachments").toAbsolutePath().normalize();
 
         try {
@@ -86,9 +115,7 @@ public class FileStorageServiceImpl implements FileStorageService {
             }
 
             try {
-                // Generate a unique name for storage
                 String originalFilename = StringUtils.cleanPath(Objects.requireNonNull(file.getOriginalFilename()));
-                String uniqueFilename = UUID.randomUUID() + "_" + originalFilename;
 
                 // Validate content type before proceeding
                 String contentType = file.getContentType();
@@ -96,14 +123,24 @@ public class FileStorageServiceImpl implements FileStorageService {
                     throw new InvalidFileException("File " + originalFilename + " has invalid content type");
                 }
 
-                Path targetLocation = this.fileStorageLocation.resolve(uniqueFilename);
-                Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+                Path targetLocation;
+                String contentHash = null;
+                if (contentAddressed) {
+                    AttachmentBlobStore.TempBlob blob = attachmentBlobStore.writeTemp(file.getInputStream());
+                    targetLocation = attachmentBlobStore.addReference(blob);
+                    contentHash = blob.hash();
+                } else {
+                    // Generate a unique name for storage
+                    targetLocation = this.fileStorageLocation.resolve(UUID.randomUUID() + "_" + originalFilename);
+                    Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+                }
 
                 // Store metadata
                 FileStorage fileStorage = new FileStorage();
                 fileStorage.setName(originalFilename);
                 fileStorage.setType(contentType);
                 fileStorage.setPath(targetLocation.toString());
+                fileStorage.setContentHash(contentHash);
                 fileStorage.setTask(task);
 
                 fileStorageRepository.save(fileStorage);
@@ -118,6 +155,321 @@ public class FileStorageServiceImpl implements FileStorageService {
         return unaddedFiles;
     }
 
+    // A file written by storeStreamedFiles, not recorded in file_storage yet.
+    // In content-addressed mode path is a temp file and contentHash is set, saveStoredFiles moves it to the blob store.
+    public record StoredFile(String name, String contentType, Path path, String contentHash, long size) {
+    }
+
+    // Streaming counterpart of validateAndStoreFiles: reads the multipart body part by part and copies each
+    // "files" part straight to its final place in task-attachments, so nothing is buffered in memory or in a
+    // temp file first. The MAX_FILES, size, duplicate name and content type rules are checked as parts arrive
+    // and the first violation aborts the upload, deleting what was already written.
+    // Runs outside any transaction, the caller records the returned files with saveStoredFiles.
+    @Transactional(transactionManager = "kanbanTransactionManager", propagation = Propagation.NOT_SUPPORTED)
+    public List<StoredFile> storeStreamedFiles(HttpServletRequest request, Set<String> existingFilenames) {
+        if (!isMultipart(request)) {
+            throw new InvalidFileException("Attachments must be sent as multipart/form-data");
+        }
+
+        FileUpload upload = new FileUpload();
+        upload.setFileSizeMax(MAX_FILE_SIZE);
+
+        List<StoredFile> storedFiles = new ArrayList<>();
+        Set<String> filenames = new HashSet<>(existingFilenames);
+        Path targetLocation = null;
+        try {
+            FileItemIterator parts = upload.getItemIterator(new ServletRequestContext(request));
+            while (parts.hasNext()) {
+                FileItemStream part = parts.next();
+                // Unread parts are skipped by the iterator
+                if (part.isFormField() || !"files".equals(part.getFieldName())
+                        || part.getName() == null || part.getName().trim().isEmpty()) {
+                    continue;
+                }
+
+                String originalFilename = StringUtils.cleanPath(part.getName());
+                if (originalFilename.contains("..")) {
+                    throw new InvalidFileException("File " + originalFilename + " has an invalid name");
+                }
+                if (filenames.contains(originalFilename)) {
+                    throw new ConflictException("File " + originalFilename + " already exists in this task");
+                }
+                if (filenames.size() >= MAX_FILES) {
+                    throw new InvalidFileException("Each task can have at most " + MAX_FILES + " files, " + originalFilename + " was not added");
+                }
+                String contentType = part.getContentType();
+                if (contentType == null || contentType.trim().isEmpty()) {
+                    throw new InvalidFileException("File " + originalFilename + " has invalid content type");
+                }
+
+                StoredFile storedFile;
+                try (InputStream content = part.openStream()) {
+                    if (contentAddressed) {
+                        // Hashed while it is written, a failed write removes its own temp file
+                        AttachmentBlobStore.TempBlob blob = attachmentBlobStore.writeTemp(content);
+                        storedFile = new StoredFile(originalFilename, contentType, blob.path(), blob.hash(), blob.size());
+                    } else {
+                        targetLocation = this.fileStorageLocation.resolve(UUID.randomUUID() + "_" + originalFilename);
+                        long size = Files.copy(content, targetLocation);
+                        storedFile = new StoredFile(originalFilename, contentType, targetLocation, null, size);
+                    }
+                } catch (FileUploadIOException e) {
+                    if (e.getCause() instanceof FileSizeLimitExceededException) {
+                        throw new InvalidFileException("File " + originalFilename + " exceeds the maximum size of 20MB");
+                    }
+                    throw e;
+                }
+
+                // Empty files are skipped, like in validateAndStoreFiles
+                if (storedFile.size() == 0) {
+                    Files.deleteIfExists(storedFile.path());
+                } else {
+                    storedFiles.add(storedFile);
+                    filenames.add(originalFilename);
+                }
+                targetLocation = null;
+            }
+            return storedFiles;
+        } catch (IOException e) {
+            discardStoredFiles(storedFiles, targetLocation);
+            throw new RuntimeException("Could not store the uploaded files", e);
+        } catch (RuntimeException e) {
+            discardStoredFiles(storedFiles, targetLocation);
+            throw e;
+        }
+    }
+
+    // Records files written by storeStreamedFiles on the task, inside the caller's transaction
+    public void saveStoredFiles(List<StoredFile> storedFiles, TaskV3 task) {
+        List<FileStorage> files = new ArrayList<>(storedFiles.size());
+        for (StoredFile storedFile : storedFiles) {
+            Path path = storedFile.path();
+            if (storedFile.contentHash() != null) {
+                try {
+                    path = attachmentBlobStore.addReference(new AttachmentBlobStore.TempBlob(path, storedFile.contentHash(), storedFile.size()));
+                } catch (IOException e) {
+                    throw new RuntimeException("Could not store file " + storedFile.name(), e);
+                }
+            }
+
+            FileStorage fileStorage = new FileStorage();
+            fileStorage.setName(storedFile.name());
+            fileStorage.setType(storedFile.contentType());
+            fileStorage.setPath(path.toString());
+            fileStorage.setContentHash(storedFile.contentHash());
+            fileStorage.setTask(task);
+            files.add(fileStorage);
+        }
+        fileStorageRepository.saveAll(files);
+        task.getFiles().addAll(files);
+    }
+
+    // Deletes files written by storeStreamedFiles that will not be recorded, plus a partially written one.
+    // Temp files already moved to the blob store are gone, the blob itself is only removed by a reference count of zero.
+    public void discardStoredFiles(List<StoredFile> storedFiles, Path partialFile) {
+        List<Path> paths = new ArrayList<>(storedFiles.size() + 1);
+        storedFiles.forEach(storedFile -> paths.add(storedFile.path()));
+        if (partialFile != null) {
+            paths.add(partialFile);
+        }
+        for (Path path : paths) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("Could not delete discarded upload {}", path, e);
+            }
+        }
+    }
+
+    // Checked on the content type only, the manifest update is a PUT
+    private static boolean isMultipart(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("multipart/");
+    }
+
+    // An attachment manifest read by storeManifestUpload, with the uploaded contents by hash
+    public record ManifestUpload(AttachmentManifest manifest, Map<String, AttachmentBlobStore.TempBlob> contents) {
+    }
+
+    // Reads a manifest update: a "manifest" part (AttachmentManifest as JSON) followed by one "files" part per
+    // content the server is missing. Every uploaded part is hashed as it is written to a temp file and must match a
+    // hash of the manifest, the part's file name is not used. Runs outside any transaction like storeStreamedFiles.
+    @Transactional(transactionManager = "kanbanTransactionManager", propagation = Propagation.NOT_SUPPORTED)
+    public ManifestUpload storeManifestUpload(HttpServletRequest request) {
+        if (!contentAddressed) {
+            throw new InvalidFileException("Attachment manifests need the content-addressed attachment store");
+        }
+        if (!isMultipart(request)) {
+            throw new InvalidFileException("Attachments must be sent as multipart/form-data");
+        }
+
+        FileUpload upload = new FileUpload();
+        upload.setFileSizeMax(MAX_FILE_SIZE);
+
+        AttachmentManifest manifest = null;
+        Set<String> manifestHashes = Set.of();
+        Map<String, AttachmentBlobStore.TempBlob> contents = new HashMap<>();
+        try {
+            FileItemIterator parts = upload.getItemIterator(new ServletRequestContext(request));
+            while (parts.hasNext()) {
+                FileItemStream part = parts.next();
+                if ("manifest".equals(part.getFieldName())) {
+                    if (manifest != null) {
+                        throw new InvalidFileException("Only one attachment manifest can be sent");
+                    }
+                    try (InputStream content = part.openStream()) {
+                        manifest = validateManifest(objectMapper.readValue(content, AttachmentManifest.class));
+                    } catch (JsonProcessingException e) {
+                        throw new InvalidFileException("Invalid attachment manifest");
+                    }
+                    manifestHashes = manifest.getFiles().stream()
+                            .map(AttachmentManifest.Entry::getHash)
+                            .collect(Collectors.toSet());
+                    continue;
+                }
+                if (part.isFormField() || !"files".equals(part.getFieldName())) {
+                    continue;
+                }
+                if (manifest == null) {
+                    throw new InvalidFileException("The attachment manifest must be sent before the files");
+                }
+                if (contents.size() >= MAX_FILES) {
+                    throw new InvalidFileException("Each task can have at most " + MAX_FILES + " files");
+                }
+
+                AttachmentBlobStore.TempBlob blob;
+                try (InputStream content = part.openStream()) {
+                    blob = attachmentBlobStore.writeTemp(content);
+                } catch (FileUploadIOException e) {
+                    if (e.getCause() instanceof FileSizeLimitExceededException) {
+                        throw new InvalidFileException("File " + part.getName() + " exceeds the maximum size of 20MB");
+                    }
+                    throw e;
+                }
+                if (!manifestHashes.contains(blob.hash())) {
+                    attachmentBlobStore.discard(List.of(blob));
+                    throw new InvalidFileException("File " + part.getName() + " does not match any hash of the attachment manifest");
+                }
+                AttachmentBlobStore.TempBlob previous = contents.putIfAbsent(blob.hash(), blob);
+                if (previous != null) {
+                    attachmentBlobStore.discard(List.of(blob));
+                }
+            }
+            if (manifest == null) {
+                throw new InvalidFileException("The attachment manifest is missing");
+            }
+            return new ManifestUpload(manifest, contents);
+        } catch (IOException e) {
+            attachmentBlobStore.discard(contents.values());
+            throw new RuntimeException("Could not store the uploaded files", e);
+        } catch (RuntimeException e) {
+            attachmentBlobStore.discard(contents.values());
+            throw e;
+        }
+    }
+
+    // Checks the manifest's limits and normalizes it in place: cleaned names, lower case hashes
+    public static AttachmentManifest validateManifest(AttachmentManifest manifest) {
+        if (manifest == null || manifest.getFiles() == null) {
+            throw new InvalidFileException("The attachment manifest must list the task's files");
+        }
+        if (manifest.getFiles().size() > MAX_FILES) {
+            throw new InvalidFileException("Each task can have at most " + MAX_FILES + " files");
+        }
+
+        Set<String> names = new HashSet<>();
+        for (AttachmentManifest.Entry entry : manifest.getFiles()) {
+            if (entry == null || entry.getName() == null || entry.getName().trim().isEmpty()) {
+                throw new InvalidFileException("Every file of the attachment manifest needs a name");
+            }
+            String name = StringUtils.cleanPath(entry.getName().trim());
+            if (name.contains("..") || name.contains("/") || name.length() > 255) {
+                throw new InvalidFileException("File " + name + " has an invalid name");
+            }
+            if (!names.add(name)) {
+                throw new ConflictException("File " + name + " is listed twice in the attachment manifest");
+            }
+            String hash = entry.getHash() != null ? entry.getHash().toLowerCase(Locale.ROOT) : "";
+            if (!SHA_256_HEX.matcher(hash).matches()) {
+                throw new InvalidFileException("File " + name + " needs the SHA-256 of its content as 64 hex digits");
+            }
+            entry.setName(name);
+            entry.setHash(hash);
+        }
+        return manifest;
+    }
+
+    // Deletes uploaded contents of storeManifestUpload that were not moved to the blob store
+    public void discardTempBlobs(Collection<AttachmentBlobStore.TempBlob> tempBlobs) {
+        attachmentBlobStore.discard(tempBlobs);
+    }
+
+    // Hashes of a manifest that would have to be uploaded, the board has no file with that content
+    public Set<String> findMissingContents(String boardId, Collection<String> hashes) {
+        Set<String> missing = new TreeSet<>(hashes);
+        if (!missing.isEmpty()) {
+            missing.removeAll(fileStorageRepository.findContentHashesInBoard(boardId, missing));
+        }
+        return missing;
+    }
+
+    // Blob paths of manifest contents with a reference counted, by hash, and the hashes found nowhere
+    public record ManifestReferences(Map<String, Path> blobPaths, Set<String> missing) {
+    }
+
+    // Counts a reference for each manifest entry, inside the caller's transaction. Each content comes from the upload
+    // or, without bytes, from a file of the same board. Runs before the files the manifest replaces are deleted: a
+    // renamed file is often the board's only one with its content, and once that row is gone the content is missing.
+    public ManifestReferences referenceManifestContents(List<AttachmentManifest.Entry> entries,
+                                                        Map<String, AttachmentBlobStore.TempBlob> contents, String boardId) {
+        Set<String> neededHashes = entries.stream().map(AttachmentManifest.Entry::getHash).collect(Collectors.toSet());
+        Set<String> boardHashes = neededHashes.isEmpty() ? Set.of()
+                : fileStorageRepository.findContentHashesInBoard(boardId, neededHashes);
+
+        Map<String, Path> blobPaths = new HashMap<>();
+        Set<String> missing = new TreeSet<>();
+        for (AttachmentManifest.Entry entry : entries) {
+            String hash = entry.getHash();
+            Optional<Path> blobPath;
+            try {
+                if (blobPaths.containsKey(hash)) {
+                    blobPath = attachmentBlobStore.addReference(hash);
+                } else if (contents.containsKey(hash)) {
+                    blobPath = Optional.of(attachmentBlobStore.addReference(contents.get(hash)));
+                } else if (boardHashes.contains(hash)) {
+                    blobPath = attachmentBlobStore.addReference(hash);
+                } else {
+                    blobPath = Optional.empty();
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Could not store file " + entry.getName(), e);
+            }
+            if (blobPath.isEmpty()) {
+                missing.add(hash);
+                continue;
+            }
+            blobPaths.put(hash, blobPath.get());
+        }
+        // With missing contents the caller rolls back, the references counted above go with it
+        return new ManifestReferences(blobPaths, missing);
+    }
+
+    // Adds manifest entries to the task with the blobs referenced by referenceManifestContents
+    public void saveManifestFiles(List<AttachmentManifest.Entry> entries, Map<String, Path> blobPaths, TaskV3 task) {
+        List<FileStorage> files = new ArrayList<>(entries.size());
+        for (AttachmentManifest.Entry entry : entries) {
+            FileStorage fileStorage = new FileStorage();
+            fileStorage.setName(entry.getName());
+            fileStorage.setType(getFileContentType(entry.getName()));
+            fileStorage.setPath(blobPaths.get(entry.getHash()).toString());
+            fileStorage.setContentHash(entry.getHash());
+            fileStorage.setTask(task);
+            files.add(fileStorage);
+        }
+        fileStorageRepository.saveAll(files);
+        task.getFiles().addAll(files);
+    }
+
     @Override
     public void deleteFilesByNames(Set<String> fileNames, TaskV3 task) {
         if (fileNames == null || fileNames.isEmpty() || task.getFiles() == null || task.getFiles().isEmpty()) {
@@ -128,27 +480,25 @@ public class FileStorageServiceImpl implements FileStorageService {
                 .filter(file -> fileNames.contains(file.getName()))
                 .collect(Collectors.toList());
 
+        // Files leave the disk through the outbox once this transaction commits, a rollback keeps them
+        Set<String> unreferencedBlobs = new HashSet<>();
         for (FileStorage file : filesToDelete) {
             if (file.getType() == null) {
                 // Log the issue but continue with deletion
-                System.out.println(("FileStorage entity has a null 'type' property: {}" + file.getName()));
+                log.warn("FileStorage entity has a null 'type' property: {}", file.getName());
             }
 
-            try {
-                // Delete the file from the file system
-                Path filePath = Paths.get(file.getPath()).normalize();
-                boolean deleted = Files.deleteIfExists(filePath);
-                if (!deleted) {
-                    System.out.println("File not found on filesystem: {}"+ file.getPath());
+            if (file.getContentHash() != null) {
+                // Shared content, the blob goes once no other file refers to it
+                if (attachmentBlobStore.removeReference(file.getContentHash()) && unreferencedBlobs.add(file.getContentHash())) {
+                    fileDeletionOutbox.enqueueBlob(file.getContentHash());
                 }
-
-                // Remove file metadata from the database
-                fileStorageRepository.delete(file);
-
-            } catch (IOException e) {
-                System.out.println("Error deleting file: " + file.getName() + e);
-                throw new RuntimeException("Could not delete file: " + file.getName(), e);
+            } else {
+                fileDeletionOutbox.enqueuePath(file.getPath());
             }
+
+            // Remove file metadata from the database
+            fileStorageRepository.delete(file);
         }
 
         // Remove files from the task's collection
@@ -165,12 +515,9 @@ public class FileStorageServiceImpl implements FileStorageService {
                 .map(FileStorage::getName)
                 .collect(Collectors.toSet());
 
-        try {
-            deleteFilesByNames(fileNames, task);
-        } catch (RuntimeException e) {
-            // Log error but allow the task deletion to continue
-            System.err.println("Error deleting files for task ID: " + task.getId() + ". Error: " + e.getMessage());
-        }
+        // A failure rolls back the caller's transaction, so the task is never deleted with its blob references and
+        // outbox entries half done. Files only leave the disk after commit, nothing needs undoing here.
+        deleteFilesByNames(fileNames, task);
     }
 
 
@@ -228,10 +575,12 @@ public class FileStorageServiceImpl implements FileStorageService {
     }
 
     @Override
-    public String getFileContentType(Resource resource) {
+    public String getFileContentType(String fileName) {
+        // Probed from the attachment's name, blobs are stored under their hash without an extension
         try {
-            return Files.probeContentType(Paths.get(resource.getURI()));
-        } catch (IOException e) {
+            String contentType = Files.probeContentType(Paths.get(fileName));
+            return contentType != null ? contentType : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        } catch (IOException | InvalidPathException e) {
             return MediaType.APPLICATION_OCTET_STREAM_VALUE; // Default to binary if type cannot be determined
         }
     }
@@ -0,0 +1,79 @@
+package com.pl03.kanban.services.impl;
+
+import com.pl03.kanban.exceptions.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+
+// Runs Argon2 password checks on a small pool with a bounded queue instead of the request thread.
+// Each check costs tens of milliseconds of CPU, so a login storm is capped at the pool size and anything
+// beyond the queue is turned away at once with a 503, leaving threads and CPU for board traffic.
+@Component
+public class PasswordVerifier {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+    private final Timer verificationTimer;
+    private final Timer queueWaitTimer;
+    private final Counter rejectedCounter;
+
+    @Autowired
+    public PasswordVerifier(PasswordEncoder passwordEncoder,
+                            MeterRegistry meterRegistry,
+                            @Value("${kanban.login.verifier-threads:2}") int threads,
+                            @Value("${kanban.login.verifier-queue:32}") int queueCapacity,
+                            @Value("${kanban.login.retry-after:2s}") Duration retryAfter) {
+        this.passwordEncoder = passwordEncoder;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-verifier-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+        this.verificationTimer = Timer.builder("kanban.login.verification").register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("kanban.login.verification.queue.wait").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("kanban.login.verification.rejected").register(meterRegistry);
+        Gauge.builder("kanban.login.verification.queue", executor, pool -> pool.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("kanban.login.verification.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        long submittedAt = System.nanoTime();
+        Future<Boolean> result;
+        try {
+            result = executor.submit(() -> {
+                queueWaitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return verificationTimer.recordCallable(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new ServiceOverloadedException("Too many logins in progress, please try again shortly", retryAfterSeconds);
+        }
+
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while verifying the password", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password verification failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
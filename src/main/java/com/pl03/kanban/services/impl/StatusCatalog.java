@@ -0,0 +1,112 @@
+package com.pl03.kanban.services.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pl03.kanban.dtos.StatusDto;
+import com.pl03.kanban.kanban_entities.StatusV3;
+import com.pl03.kanban.kanban_entities.repositories.StatusV3Repository;
+import com.pl03.kanban.utils.TransactionUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// In-memory copy of each board's statuses, with id -> status and name -> status lookups.
+// Statuses rarely change while tasks are created and edited all the time, so task validation and
+// creation resolve statuses here instead of querying statusv3 on every call.
+@Component
+public class StatusCatalog {
+
+    private final StatusV3Repository statusV3Repository;
+    private final Cache<String, Entry> cache;
+
+    // Invalidation leaves an entry without statuses holding a fresh generation. A load only gets cached if the
+    // generation it started from is still there, so a slow load that read the old rows does not overwrite an
+    // invalidation made after it started. Generations are never reused, an evicted marker can not make a stale load
+    // look current. A load inside the caller's transaction is never cached: under REPEATABLE READ it reads the
+    // transaction's snapshot, which can predate a status change that was already committed and invalidated.
+    private final AtomicLong generations = new AtomicLong();
+
+    @Autowired
+    public StatusCatalog(StatusV3Repository statusV3Repository,
+                         MeterRegistry meterRegistry,
+                         @Value("${kanban.status-catalog.max-boards:10000}") long maxBoards,
+                         @Value("${kanban.status-catalog.ttl:10m}") Duration ttl) {
+        this.statusV3Repository = statusV3Repository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxBoards)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "statusCatalog");
+    }
+
+    public List<StatusDto> getStatuses(String boardId) {
+        return entry(boardId).statuses().stream()
+                .map(status -> new StatusDto(status.id(), status.name(), status.description()))
+                .collect(Collectors.toList());
+    }
+
+    public Optional<CatalogStatus> findById(String boardId, int statusId) {
+        return Optional.ofNullable(entry(boardId).byId().get(statusId));
+    }
+
+    // Case-insensitive, like the column collation
+    public Optional<CatalogStatus> findByName(String boardId, String name) {
+        return Optional.ofNullable(entry(boardId).byName().get(name.toLowerCase(Locale.ROOT)));
+    }
+
+    // Call whenever a status of the board is created, updated or deleted
+    public void invalidate(String boardId) {
+        TransactionUtils.runNowAndAfterCommit(() -> cache.put(boardId, Entry.invalidated(generations.incrementAndGet())));
+    }
+
+    private Entry entry(String boardId) {
+        Entry entry = cache.getIfPresent(boardId);
+        if (entry != null && entry.statuses() != null) {
+            return entry;
+        }
+
+        long generation = entry != null ? entry.generation() : 0;
+        Entry loaded = load(boardId, generation);
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loaded;
+        }
+        cache.asMap().compute(boardId, (id, current) -> (current != null ? current.generation() : 0) == generation ? loaded : current);
+        return loaded;
+    }
+
+    private Entry load(String boardId, long generation) {
+        List<CatalogStatus> statuses = statusV3Repository.findByBoardId(boardId).stream()
+                .map(CatalogStatus::of)
+                .toList();
+        Map<Integer, CatalogStatus> byId = new HashMap<>();
+        Map<String, CatalogStatus> byName = new HashMap<>();
+        for (CatalogStatus status : statuses) {
+            byId.put(status.id(), status);
+            byName.put(status.name().toLowerCase(Locale.ROOT), status);
+        }
+        return new Entry(statuses, Map.copyOf(byId), Map.copyOf(byName), generation);
+    }
+
+    // Statuses are null once the board was invalidated
+    private record Entry(List<CatalogStatus> statuses, Map<Integer, CatalogStatus> byId, Map<String, CatalogStatus> byName,
+                         long generation) {
+        static Entry invalidated(long generation) {
+            return new Entry(null, null, null, generation);
+        }
+    }
+
+    public record CatalogStatus(int id, String name, String description) {
+        static CatalogStatus of(StatusV3 statusV3) {
+            return new CatalogStatus(statusV3.getId(), statusV3.getName(), statusV3.getDescription());
+        }
+    }
+}
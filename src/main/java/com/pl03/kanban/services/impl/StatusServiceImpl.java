@@ -3,16 +3,17 @@ package com.pl03.kanban.services.impl;
 import com.pl03.kanban.dtos.StatusDto;
 import com.pl03.kanban.exceptions.*;
 import com.pl03.kanban.kanban_entities.*;
-import com.pl03.kanban.kanban_entities.repositories.BoardCollaboratorsRepository;
 import com.pl03.kanban.kanban_entities.repositories.BoardRepository;
 import com.pl03.kanban.kanban_entities.repositories.StatusV3Repository;
 import com.pl03.kanban.kanban_entities.repositories.TaskV3Repository;
+import com.pl03.kanban.mappers.StatusMapper;
+import com.pl03.kanban.services.BoardChangeService;
 import com.pl03.kanban.services.StatusService;
-import com.pl03.kanban.utils.ListMapper;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
 
@@ -22,22 +23,26 @@ public class StatusServiceImpl implements StatusService {
     private final StatusV3Repository statusV3Repository;
     private final TaskV3Repository taskV3Repository;
     private final BoardRepository boardRepository;
-    private final BoardCollaboratorsRepository boardCollaboratorsRepository;
-    private final ListMapper listMapper;
+    private final BoardAccessCache boardAccessCache;
     private final ModelMapper modelMapper;
+    private final BoardChangeService boardChangeService;
+    private final StatusCatalog statusCatalog;
+    private final StatusMapper statusMapper;
 
     private static final List<String> DEFAULT_STATUS_NAMES = Arrays.asList("No Status", "Done");
     private static final int MAX_STATUS_NAME_LENGTH = 50;
     private static final int MAX_STATUS_DESCRIPTION_LENGTH = 200;
 
     @Autowired
-    public StatusServiceImpl(StatusV3Repository statusV3Repository, TaskV3Repository taskV3Repository, BoardRepository boardRepository, BoardCollaboratorsRepository boardCollaboratorsRepository, ListMapper listMapper, ModelMapper modelMapper) {
+    public StatusServiceImpl(StatusV3Repository statusV3Repository, TaskV3Repository taskV3Repository, BoardRepository boardRepository, BoardAccessCache boardAccessCache, ModelMapper modelMapper, BoardChangeService boardChangeService, StatusCatalog statusCatalog, StatusMapper statusMapper) {
         this.statusV3Repository = statusV3Repository;
         this.taskV3Repository = taskV3Repository;
         this.boardRepository = boardRepository;
-        this.boardCollaboratorsRepository = boardCollaboratorsRepository;
-        this.listMapper = listMapper;
+        this.boardAccessCache = boardAccessCache;
         this.modelMapper = modelMapper;
+        this.boardChangeService = boardChangeService;
+        this.statusCatalog = statusCatalog;
+        this.statusMapper = statusMapper;
     }
 
 
@@ -49,27 +54,27 @@ public class StatusServiceImpl implements StatusService {
     @Override
     public List<StatusDto> getAllStatuses(String boardId, String userId) {
         //find board first
-        BoardServiceImpl.getBoardAndCheckAccess(boardId, userId, boardRepository, boardCollaboratorsRepository);
+        BoardServiceImpl.getBoardAndCheckAccess(boardId, userId, boardAccessCache);
 
-        List<StatusV3> statusV3s = statusV3Repository.findByBoardId(boardId);
-        return listMapper.mapList(statusV3s, StatusDto.class, modelMapper);
+        return statusCatalog.getStatuses(boardId);
     }
 
 
     @Override
     public StatusDto getStatusById(String boardId, int id, String userId) {
         //find board first
-        BoardServiceImpl.getBoardAndCheckAccess(boardId, userId, boardRepository, boardCollaboratorsRepository);
+        BoardServiceImpl.getBoardAndCheckAccess(boardId, userId, boardAccessCache);
 
-        StatusV3 statusV3 = statusV3Repository.findByIdAndBoardId(id, boardId)
+        StatusCatalog.CatalogStatus status = statusCatalog.findById(boardId, id)
                 .orElseThrow(() -> new ItemNotFoundException("Status with id " + id + " does not exist in board id: " + boardId));
-        return modelMapper.map(statusV3, StatusDto.class);
+        return new StatusDto(status.id(), status.name(), status.description());
     }
 
 
     @Override
+    @Transactional(transactionManager = "kanbanTransactionManager")
     public StatusDto createStatus(String boardId, StatusDto statusDto, String userId) {
-        Board board = BoardServiceImpl.validateBoardAccessAndOwnerShip(boardId, userId, boardRepository, boardCollaboratorsRepository);
+        Board board = BoardServiceImpl.validateBoardAccessAndOwnerShip(boardId, userId, boardRepository, boardAccessCache);
 
         if (statusDto == null || isEmptyStatusDto(statusDto)) {
             throw new InvalidStatusFieldException("Status's input must have at least status's name to create status", null);
@@ -84,12 +89,15 @@ public class StatusServiceImpl implements StatusService {
         StatusV3 statusV3 = modelMapper.map(statusDto, StatusV3.class);
         statusV3.setBoard(board);
         StatusV3 savedStatusV3 = statusV3Repository.save(statusV3);
-        return modelMapper.map(savedStatusV3, StatusDto.class);
+        boardChangeService.recordChange(boardId, BoardChange.EntityType.STATUS, savedStatusV3.getId(), false);
+        statusCatalog.invalidate(boardId);
+        return statusMapper.toStatusDto(savedStatusV3);
     }
 
     @Override
+    @Transactional(transactionManager = "kanbanTransactionManager")
     public StatusDto updateStatus(String boardId, int id, StatusDto updatedStatusDto, String userId) {
-        BoardServiceImpl.validateBoardAccessAndOwnerShip(boardId, userId, boardRepository, boardCollaboratorsRepository);
+        BoardServiceImpl.validateBoardAccessAndOwnerShip(boardId, userId, boardRepository, boardAccessCache);
 
         StatusV3 statusV3 = statusV3Repository.findByIdAndBoardId(id, boardId)
                 .orElseThrow(() -> new ItemNotFoundException("Status with id " + id + " does not exist in board id: " + boardId));
@@ -117,12 +125,15 @@ public class StatusServiceImpl implements StatusService {
                 : updatedStatusDto.getName().trim());
         statusV3.setDescription(updatedStatusDto.getDescription());
         StatusV3 updatedStatusV3 = statusV3Repository.save(statusV3);
-        return modelMapper.map(updatedStatusV3, StatusDto.class);
+        boardChangeService.recordChange(boardId, BoardChange.EntityType.STATUS, id, false);
+        statusCatalog.invalidate(boardId);
+        return statusMapper.toStatusDto(updatedStatusV3);
     }
 
     @Override
+    @Transactional(transactionManager = "kanbanTransactionManager")
     public StatusDto deleteStatus(String boardId, int id, String userId) {
-        BoardServiceImpl.validateBoardAccessAndOwnerShip(boardId, userId, boardRepository, boardCollaboratorsRepository);
+        BoardServiceImpl.validateBoardAccessAndOwnerShip(boardId, userId, boardRepository, boardAccessCache);
 
         StatusV3 statusV3 = statusV3Repository.findByIdAndBoardId(id, boardId)
                 .orElseThrow(() -> new ItemNotFoundException("Status with id " + id + " does not exist in board id: " + boardId));
@@ -131,20 +142,23 @@ public class StatusServiceImpl implements StatusService {
             throw new InvalidStatusFieldException(statusV3.getName() + " cannot be deleted");
         }
 
-        List<TaskV3> tasksWithStatus = taskV3Repository.findByStatusV3(statusV3);
-        if (!tasksWithStatus.isEmpty()) {
+        if (taskV3Repository.existsByStatusV3Id(id)) {
             throw new InvalidStatusFieldException("Destination status for task transfer not specified");
         }
 
         statusV3Repository.delete(statusV3);
-        return modelMapper.map(statusV3, StatusDto.class);
+        boardChangeService.recordChange(boardId, BoardChange.EntityType.STATUS, id, true);
+        statusCatalog.invalidate(boardId);
+        return statusMapper.toStatusDto(statusV3);
     }
 
     @Override
-    public void deleteStatusAndTransferTasks(String boardId, int id, int newStatusId, String userId) {
-        BoardServiceImpl.validateBoardAccessAndOwnerShip(boardId, userId, boardRepository, boardCollaboratorsRepository);
+    @Transactional(transactionManager = "kanbanTransactionManager")
+    public int deleteStatusAndTransferTasks(String boardId, int id, int newStatusId, String userId) {
+        BoardServiceImpl.validateBoardAccessAndOwnerShip(boardId, userId, boardRepository, boardAccessCache);
 
-        StatusV3 currentStatusV3 = statusV3Repository.findByIdAndBoardId(id, boardId)
+        // Locked so no task can be added to the status between the transfer and the delete
+        StatusV3 currentStatusV3 = statusV3Repository.findByIdAndBoardIdForUpdate(id, boardId)
                 .orElseThrow(() -> new ItemNotFoundException("Status with id " + id + " does not exist in board id: " + boardId));
         StatusV3 newStatusV3 = statusV3Repository.findByIdAndBoardId(newStatusId, boardId)
                 .orElseThrow(() -> new ItemNotFoundException("Status with id " + newStatusId + " does not exist in board id: " + boardId));
@@ -157,11 +171,16 @@ public class StatusServiceImpl implements StatusService {
             throw new InvalidStatusFieldException("destination status for task transfer must be different from current status");
         }
 
-        List<TaskV3> tasksWithCurrentStatus = taskV3Repository.findByStatusV3(currentStatusV3);
-        tasksWithCurrentStatus.forEach(task -> task.setStatusV3(newStatusV3));
-        taskV3Repository.saveAll(tasksWithCurrentStatus);
+        // Ids only for the change log, the move itself is a single UPDATE
+        List<Integer> transferredTaskIds = taskV3Repository.findIdsByStatusV3AndBoardId(currentStatusV3, boardId);
+        int transferred = taskV3Repository.transferTasks(currentStatusV3, newStatusV3, boardId);
 
         statusV3Repository.delete(currentStatusV3);
+
+        // One version for the moved tasks and the deleted status, clients never see one without the other
+        boardChangeService.recordChanges(boardId, transferredTaskIds, List.of(), List.of(), List.of(id));
+        statusCatalog.invalidate(boardId);
+        return transferred;
     }
 
     private boolean isEmptyStatusDto(StatusDto dto) {
@@ -189,6 +208,7 @@ public class StatusServiceImpl implements StatusService {
 
 
     @Override
+    @Transactional(transactionManager = "kanbanTransactionManager")
     public void addDefaultStatus(String boardId) {
         Board board = boardRepository.findById(boardId)
                 .orElseThrow(() -> new ItemNotFoundException("Board with id " + boardId + " does not exist"));
@@ -203,5 +223,8 @@ public class StatusServiceImpl implements StatusService {
 
         // Save all the default statuses to the database
         statusV3Repository.saveAll(defaultStatusV3s);
+        boardChangeService.recordChanges(boardId, BoardChange.EntityType.STATUS,
+                defaultStatusV3s.stream().map(StatusV3::getId).toList(), List.of());
+        statusCatalog.invalidate(boardId);
     }
 }
\ No newline at end of file
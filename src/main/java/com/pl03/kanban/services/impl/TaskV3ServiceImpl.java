@@ -1,28 +1,45 @@
 package com.pl03.kanban.services.impl;
 
 import com.pl03.kanban.dtos.*;
+import com.pl03.kanban.exceptions.ConflictException;
 import com.pl03.kanban.exceptions.ErrorResponse;
+import com.pl03.kanban.exceptions.InvalidFileException;
 import com.pl03.kanban.exceptions.ItemNotFoundException;
 import com.pl03.kanban.kanban_entities.*;
-import com.pl03.kanban.kanban_entities.repositories.BoardCollaboratorsRepository;
 import com.pl03.kanban.kanban_entities.repositories.BoardRepository;
 import com.pl03.kanban.kanban_entities.repositories.StatusV3Repository;
 import com.pl03.kanban.kanban_entities.repositories.TaskV3Repository;
-import com.pl03.kanban.utils.ListMapper;
 import com.pl03.kanban.exceptions.InvalidTaskFieldException;
+import com.pl03.kanban.mappers.TaskMapper;
+import com.pl03.kanban.services.BoardChangeService;
 import com.pl03.kanban.services.TaskV3Service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.pl03.kanban.utils.KeysetCursor;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import jakarta.servlet.http.HttpServletRequest;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.pl03.kanban.services.impl.FileStorageServiceImpl.MAX_FILES;
 
@@ -30,42 +47,54 @@ import static com.pl03.kanban.services.impl.FileStorageServiceImpl.MAX_FILES;
 public class TaskV3ServiceImpl implements TaskV3Service {
     private final TaskV3Repository taskV3Repository;
     private final StatusV3Repository statusV3Repository;
-    private final BoardCollaboratorsRepository boardCollaboratorsRepository;
+    private final BoardAccessCache boardAccessCache;
     private final ModelMapper modelMapper;
-    private final ListMapper listMapper;
     private final BoardRepository boardRepository;
 
     private final FileStorageServiceImpl fileStorageServiceImpl;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final BoardChangeService boardChangeService;
+    private final StatusCatalog statusCatalog;
+    private final TaskMapper taskMapper;
 
     @Autowired
     public TaskV3ServiceImpl(TaskV3Repository taskV3Repository, StatusV3Repository statusV3Repository,
-                             BoardCollaboratorsRepository boardCollaboratorsRepository, ModelMapper modelMapper, ListMapper listMapper, BoardRepository boardRepository, FileStorageServiceImpl fileStorageServiceImpl) {
+                             BoardAccessCache boardAccessCache, ModelMapper modelMapper, BoardRepository boardRepository, FileStorageServiceImpl fileStorageServiceImpl,
+                             ObjectMapper objectMapper, @Qualifier("kanbanTransactionManager") PlatformTransactionManager kanbanTransactionManager,
+                             BoardChangeService boardChangeService, StatusCatalog statusCatalog, TaskMapper taskMapper) {
         this.taskV3Repository = taskV3Repository;
         this.statusV3Repository = statusV3Repository;
-        this.boardCollaboratorsRepository = boardCollaboratorsRepository;
+        this.boardAccessCache = boardAccessCache;
         this.modelMapper = modelMapper;
-        this.listMapper = listMapper;
         this.boardRepository = boardRepository;
         this.fileStorageServiceImpl = fileStorageServiceImpl;
-
-        // Custom mapping for status name
-        modelMapper.typeMap(TaskV3.class, GetAllTaskDto.class).addMappings(mapper ->
-                mapper.map(src -> src.getStatusV3().getName(), GetAllTaskDto::setStatus));
-
-        modelMapper.typeMap(TaskV3.class, AddEditTaskDto.class).addMappings(mapper ->
-                mapper.map(src -> src.getStatusV3().getName(), AddEditTaskDto::setStatus));
-
-        modelMapper.typeMap(TaskV3.class, AddEditTaskDtoWithAttachments.class).addMappings(mapper ->
-                mapper.map(src -> src.getStatusV3().getName(), AddEditTaskDtoWithAttachments::setStatus));
+        this.objectMapper = objectMapper;
+        this.boardChangeService = boardChangeService;
+        this.statusCatalog = statusCatalog;
+        this.taskMapper = taskMapper;
+
+        // The streamed task list runs outside the request thread, so it opens its own read-only transaction
+        this.readOnlyTransaction = new TransactionTemplate(kanbanTransactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // Streamed uploads write the body to disk first and only then open a transaction to record the files
+        this.writeTransaction = new TransactionTemplate(kanbanTransactionManager);
     }
 
     private static final int MAX_TASK_TITLE_LENGTH = 100;
     private static final int MAX_TASK_DESCRIPTION_LENGTH = 500;
     private static final int MAX_TASK_ASSIGNEES_LENGTH = 30;
+    private static final int MAX_TASK_PAGE_SIZE = 500;
+    private static final int STREAM_FLUSH_EVERY = 500;
+    private static final int MAX_BATCH_OPERATIONS = 500;
+    private static final Set<String> PATCHABLE_FIELDS = Set.of(AddEditTaskDto.Fields.title, AddEditTaskDto.Fields.description,
+            AddEditTaskDto.Fields.assignees, AddEditTaskDto.Fields.status);
 
     @Override
+    @Transactional(transactionManager = "kanbanTransactionManager")
     public AddEditTaskDto createTask(String boardId, AddEditTaskDto addEditTaskDto, String userId) {
-        Board board = BoardServiceImpl.validateBoardAccessAndOwnerShip(boardId, userId, boardRepository, boardCollaboratorsRepository);
+        Board board = BoardServiceImpl.validateBoardAccessAndOwnerShip(boardId, userId, boardRepository, boardAccessCache);
 
         // Check if DTO is null or empty
         if (addEditTaskDto == null || isEmptyTaskDto(addEditTaskDto)) {
@@ -73,7 +102,7 @@ public class TaskV3ServiceImpl implements TaskV3Service {
         }
 
         // Validate task fields
-        ErrorResponse errorResponse = validateTaskFields(addEditTaskDto);
+        ErrorResponse errorResponse = validateTaskFields(addEditTaskDto, boardId);
         if (errorResponse != null && !errorResponse.getErrors().isEmpty()) {
             throw new InvalidTaskFieldException("Validation error. Check 'errors' field for details", errorResponse.getErrors());
         }
@@ -83,70 +112,141 @@ public class TaskV3ServiceImpl implements TaskV3Service {
         task.setBoard(board);
 
         // Set the status to "No Status" if the status field is null or empty
-        StatusV3 statusV3;
+        // Resolved from the status catalog, the task only needs a reference to the status row
+        StatusCatalog.CatalogStatus status;
         if (addEditTaskDto.getStatus() == null || addEditTaskDto.getStatus().isEmpty()) {
-            statusV3 = statusV3Repository.findByNameAndBoardId("No Status", boardId)
+            status = statusCatalog.findByName(boardId, "No Status")
                     .orElseThrow(() -> new ItemNotFoundException("Default status 'No Status' does not exist in board id: " + boardId));
         } else {
-            statusV3 = statusV3Repository.findById(Integer.parseInt(addEditTaskDto.getStatus()))
+            status = statusCatalog.findById(boardId, Integer.parseInt(addEditTaskDto.getStatus()))
                     .orElseThrow(() -> new ItemNotFoundException("Status with id " + addEditTaskDto.getStatus() + " does not exist in board id: " + boardId));
         }
-        task.setStatusV3(statusV3);
+        task.setStatusV3(statusV3Repository.getReferenceById(status.id()));
 
         TaskV3 savedTask = taskV3Repository.save(task);
-        return modelMapper.map(savedTask, AddEditTaskDto.class);
+        boardChangeService.recordChange(boardId, BoardChange.EntityType.TASK, savedTask.getId(), false);
+        return taskMapper.toAddEditTaskDto(savedTask, status.name());
     }
 
 
     @Override
     public List<GetAllTaskDto> getAllTasks(String boardId, String sortBy, List<String> filterStatuses, String userId) {
         //find board first
-        BoardServiceImpl.getBoardAndCheckAccess(boardId, userId, boardRepository, boardCollaboratorsRepository);
-
-        List<TaskV3> tasks;
+        BoardServiceImpl.getBoardAndCheckAccess(boardId, userId, boardAccessCache);
 
         if (sortBy == null && (filterStatuses == null || filterStatuses.isEmpty())) {
-            tasks = taskV3Repository.findByBoardId(boardId);
+            return taskV3Repository.findTaskDtosByBoardId(boardId);
         } else if (sortBy == null) {
-            List<StatusV3> filteredStatusV3s = statusV3Repository.findByNameInAndBoardId(filterStatuses, boardId);
-            tasks = taskV3Repository.findByStatusV3InAndBoardId(filteredStatusV3s, boardId);
+            return taskV3Repository.findTaskDtosByBoardIdAndStatusNameIn(boardId, filterStatuses);
         } else if (!sortBy.equals("statusV3.name")) {
             throw new InvalidTaskFieldException("invalid filter parameter");
         } else if (filterStatuses == null || filterStatuses.isEmpty()) {
-            tasks = taskV3Repository.findByBoardId(boardId, Sort.by(Sort.Direction.ASC, sortBy));
+            return taskV3Repository.findTaskDtosByBoardIdOrderByStatusName(boardId);
         } else {
-            List<StatusV3> filteredStatusV3s = statusV3Repository.findByNameInAndBoardId(filterStatuses, boardId);
-            tasks = taskV3Repository.findByStatusV3InAndBoardId(filteredStatusV3s, boardId, Sort.by(Sort.Direction.ASC, sortBy));
+            return taskV3Repository.findTaskDtosByBoardIdAndStatusNameInOrderByStatusName(boardId, filterStatuses);
         }
+    }
 
-        return listMapper.mapList(tasks, GetAllTaskDto.class, modelMapper);
+    @Override
+    public CursorPage<GetAllTaskDto> getTasksPage(String boardId, String sortBy, List<String> filterStatuses, int limit, String after, String userId) {
+        BoardServiceImpl.getBoardAndCheckAccess(boardId, userId, boardAccessCache);
+
+        // Pages are always in (status name, id) order, which is what sortBy=statusV3.name asks for
+        if (sortBy != null && !sortBy.equals("statusV3.name")) {
+            throw new InvalidTaskFieldException("invalid filter parameter");
+        }
+        if (limit < 1 || limit > MAX_TASK_PAGE_SIZE) {
+            throw new InvalidTaskFieldException("limit must be between 1 and " + MAX_TASK_PAGE_SIZE);
+        }
+
+        // Fetch one extra row to know whether there is a next page
+        Pageable pageable = PageRequest.of(0, limit + 1);
+        boolean filtered = filterStatuses != null && !filterStatuses.isEmpty();
+        List<GetAllTaskDto> tasks;
+        if (after == null || after.isEmpty()) {
+            tasks = filtered
+                    ? taskV3Repository.findTaskDtoPageByBoardIdAndStatusNameIn(boardId, filterStatuses, pageable)
+                    : taskV3Repository.findTaskDtoPageByBoardId(boardId, pageable);
+        } else {
+            String afterStatus;
+            int afterId;
+            try {
+                String[] parts = KeysetCursor.decode(after, 2);
+                afterStatus = parts[0];
+                afterId = Integer.parseInt(parts[1]);
+            } catch (IllegalArgumentException e) {
+                throw new InvalidTaskFieldException("Invalid cursor");
+            }
+            tasks = filtered
+                    ? taskV3Repository.findTaskDtoPageByBoardIdAndStatusNameInAfter(boardId, filterStatuses, afterStatus, afterId, pageable)
+                    : taskV3Repository.findTaskDtoPageByBoardIdAfter(boardId, afterStatus, afterId, pageable);
+        }
+
+        String nextCursor = null;
+        if (tasks.size() > limit) {
+            tasks = tasks.subList(0, limit);
+            GetAllTaskDto last = tasks.get(limit - 1);
+            nextCursor = KeysetCursor.encode(last.getStatus(), String.valueOf(last.getId()));
+        }
+        return new CursorPage<>(tasks, nextCursor);
+    }
+
+    @Override
+    public StreamingResponseBody streamAllTasks(String boardId, String sortBy, List<String> filterStatuses, String userId) {
+        // Access and parameters are checked before the response starts, so errors still map to a normal status code
+        BoardServiceImpl.getBoardAndCheckAccess(boardId, userId, boardAccessCache);
+
+        Sort sort;
+        if (sortBy == null) {
+            sort = Sort.unsorted();
+        } else if (sortBy.equals("statusV3.name")) {
+            sort = Sort.by("statusV3.name", "id");
+        } else {
+            throw new InvalidTaskFieldException("invalid filter parameter");
+        }
+        boolean filtered = filterStatuses != null && !filterStatuses.isEmpty();
+
+        // One JSON object per line, written as rows come off the cursor so memory does not grow with the board
+        return outputStream -> readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<GetAllTaskDto> tasks = filtered
+                    ? taskV3Repository.streamTaskDtosByBoardIdAndStatusNameIn(boardId, filterStatuses, sort)
+                    : taskV3Repository.streamTaskDtosByBoardId(boardId, sort)) {
+                // Flushing is done in chunks below instead of after every row
+                ObjectWriter writer = objectMapper.writerFor(GetAllTaskDto.class)
+                        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+                JsonGenerator generator = writer.createGenerator(outputStream);
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                int written = 0;
+                for (Iterator<GetAllTaskDto> it = tasks.iterator(); it.hasNext(); ) {
+                    writer.writeValue(generator, it.next());
+                    generator.writeRaw('\n');
+                    if (++written % STREAM_FLUSH_EVERY == 0) {
+                        generator.flush();
+                    }
+                }
+                generator.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
     }
 
     @Override
     public TaskDetailDtoWithAttachments getTaskById(String boardId, int taskId, String userId) {
-        BoardServiceImpl.getBoardAndCheckAccess(boardId, userId, boardRepository, boardCollaboratorsRepository);
+        BoardServiceImpl.getBoardAndCheckAccess(boardId, userId, boardAccessCache);
 
         // Use the new repository method that fetches files eagerly
         TaskV3 task = taskV3Repository.findByIdAndBoardIdWithFiles(taskId, boardId)
                 .orElseThrow(() -> new ItemNotFoundException("Task with id " + taskId + " does not exist in board id: " + boardId));
 
-        // Map the entity to TaskDetailDto
-        TaskDetailDtoWithAttachments taskDetailDto = modelMapper.map(task, TaskDetailDtoWithAttachments.class);
-        taskDetailDto.setStatus(task.getStatusV3().getName());
-
-        // Map attachments
-        List<FileAttachmentDto> attachments = task.getFiles().stream()
-                .map(file -> modelMapper.map(file, FileAttachmentDto.class))
-                .collect(Collectors.toList());
-        taskDetailDto.setAttachments(attachments);
-
-        return taskDetailDto;
+        // Map the entity and its attachments to TaskDetailDto
+        return taskMapper.toTaskDetailDto(task);
     }
 
     @Override
     @Transactional(transactionManager = "kanbanTransactionManager")
     public AddEditTaskDto deleteTaskById(String boardId, int taskId, String userId) {
-        BoardServiceImpl.validateBoardAccessAndOwnerShip(boardId, userId, boardRepository, boardCollaboratorsRepository);
+        BoardServiceImpl.validateBoardAccessAndOwnerShip(boardId, userId, boardRepository, boardAccessCache);
 
         TaskV3 task = taskV3Repository.findByIdAndBoardId(taskId, boardId)
                 .orElseThrow(() -> new ItemNotFoundException("Task with id " + taskId + " does not exist in board id: " + boardId));
@@ -154,13 +254,207 @@ public class TaskV3ServiceImpl implements TaskV3Service {
         fileStorageServiceImpl.deleteAllFiles(task);
 
         taskV3Repository.delete(task);
-        return modelMapper.map(task, AddEditTaskDto.class);
+        boardChangeService.recordChange(boardId, BoardChange.EntityType.TASK, taskId, true);
+        return taskMapper.toAddEditTaskDto(task);
+    }
+
+    @Override
+    @Transactional(transactionManager = "kanbanTransactionManager")
+    public TaskBatchResult applyTaskBatch(String boardId, List<TaskBatchOperation> operations, String userId) {
+        // Access is checked once for the whole batch
+        Board board = BoardServiceImpl.validateBoardAccessAndOwnerShip(boardId, userId, boardRepository, boardAccessCache);
+
+        if (operations == null || operations.isEmpty()) {
+            throw new InvalidTaskFieldException("Batch must contain at least one operation");
+        }
+        if (operations.size() > MAX_BATCH_OPERATIONS) {
+            throw new InvalidTaskFieldException("Batch can contain at most " + MAX_BATCH_OPERATIONS + " operations");
+        }
+
+        // Validate every operation before writing anything
+        ErrorResponse errorResponse = new ErrorResponse(HttpStatus.BAD_REQUEST.value(), "Validation error. Check 'errors' field for details", "");
+        Set<Integer> taskIds = new HashSet<>();
+        for (int i = 0; i < operations.size(); i++) {
+            TaskBatchOperation operation = operations.get(i);
+            String prefix = "operations[" + i + "].";
+            if (operation == null || operation.getOp() == null) {
+                errorResponse.addValidationError(prefix + TaskBatchOperation.Fields.op, "must not be null");
+                continue;
+            }
+
+            switch (operation.getOp()) {
+                case TaskBatchOperation.CREATE -> {
+                    addTextFieldErrors(toAddEditTaskDto(operation), errorResponse, prefix);
+                    if (operation.getStatus() != null && !operation.getStatus().isEmpty()
+                            && findBatchStatus(operation.getStatus(), boardId) == null) {
+                        errorResponse.addValidationError(prefix + TaskBatchOperation.Fields.status, "does not exist");
+                    }
+                }
+                case TaskBatchOperation.UPDATE_STATUS -> {
+                    if (operation.getStatus() == null || operation.getStatus().isEmpty()) {
+                        errorResponse.addValidationError(prefix + TaskBatchOperation.Fields.status, "must not be null");
+                    } else if (findBatchStatus(operation.getStatus(), boardId) == null) {
+                        errorResponse.addValidationError(prefix + TaskBatchOperation.Fields.status, "does not exist");
+                    }
+                }
+                case TaskBatchOperation.DELETE -> {
+                }
+                default -> {
+                    errorResponse.addValidationError(prefix + TaskBatchOperation.Fields.op,
+                            "must be one of " + TaskBatchOperation.CREATE + ", " + TaskBatchOperation.UPDATE_STATUS + ", " + TaskBatchOperation.DELETE);
+                    continue;
+                }
+            }
+
+            if (!operation.getOp().equals(TaskBatchOperation.CREATE)) {
+                if (operation.getTaskId() == null) {
+                    errorResponse.addValidationError(prefix + TaskBatchOperation.Fields.taskId, "must not be null");
+                } else if (!taskIds.add(operation.getTaskId())) {
+                    errorResponse.addValidationError(prefix + TaskBatchOperation.Fields.taskId, "appears in more than one operation");
+                }
+            }
+        }
+        if (!errorResponse.getErrors().isEmpty()) {
+            throw new InvalidTaskFieldException("Validation error. Check 'errors' field for details", errorResponse.getErrors());
+        }
+
+        // Tasks to update or delete are loaded in one query, files included for the deletes
+        Map<Integer, TaskV3> tasksById = taskIds.isEmpty()
+                ? Collections.emptyMap()
+                : taskV3Repository.findByIdInAndBoardIdWithFiles(taskIds, boardId).stream()
+                .collect(Collectors.toMap(TaskV3::getId, task -> task));
+        for (Integer taskId : taskIds) {
+            if (!tasksById.containsKey(taskId)) {
+                throw new ItemNotFoundException("Task with id " + taskId + " does not exist in board id: " + boardId);
+            }
+        }
+
+        List<TaskV3> tasksToCreate = new ArrayList<>();
+        List<TaskV3> tasksToDelete = new ArrayList<>();
+        List<Integer> updatedIds = new ArrayList<>();
+        for (TaskBatchOperation operation : operations) {
+            switch (operation.getOp()) {
+                case TaskBatchOperation.CREATE -> {
+                    StatusCatalog.CatalogStatus status;
+                    if (operation.getStatus() == null || operation.getStatus().isEmpty()) {
+                        status = statusCatalog.findByName(boardId, "No Status")
+                                .orElseThrow(() -> new ItemNotFoundException("Default status 'No Status' does not exist in board id: " + boardId));
+                    } else {
+                        status = findBatchStatus(operation.getStatus(), boardId);
+                    }
+
+                    TaskV3 task = new TaskV3();
+                    task.setTitle(operation.getTitle().trim());
+                    task.setDescription(operation.getDescription() != null ? operation.getDescription().trim() : null);
+                    task.setAssignees(operation.getAssignees() != null ? operation.getAssignees().trim() : null);
+                    task.setStatusV3(statusV3Repository.getReferenceById(status.id()));
+                    task.setBoard(board);
+                    tasksToCreate.add(task);
+                }
+                case TaskBatchOperation.UPDATE_STATUS -> {
+                    // Written by dirty checking at flush, as one JDBC batch of UPDATEs
+                    StatusCatalog.CatalogStatus status = findBatchStatus(operation.getStatus(), boardId);
+                    tasksById.get(operation.getTaskId()).setStatusV3(statusV3Repository.getReferenceById(status.id()));
+                    updatedIds.add(operation.getTaskId());
+                }
+                case TaskBatchOperation.DELETE -> tasksToDelete.add(tasksById.get(operation.getTaskId()));
+            }
+        }
+
+        for (TaskV3 task : tasksToDelete) {
+            fileStorageServiceImpl.deleteAllFiles(task);
+        }
+        taskV3Repository.deleteAll(tasksToDelete);
+
+        List<AddEditTaskDto> created = taskV3Repository.saveAll(tasksToCreate).stream()
+                .map(task -> taskMapper.toAddEditTaskDto(task, statusName(task)))
+                .collect(Collectors.toList());
+        List<Integer> deletedIds = tasksToDelete.stream().map(TaskV3::getId).collect(Collectors.toList());
+
+        // One version for the whole batch
+        List<Integer> upsertedIds = new ArrayList<>(updatedIds);
+        created.forEach(task -> upsertedIds.add(task.getId()));
+        boardChangeService.recordChanges(boardId, BoardChange.EntityType.TASK, upsertedIds, deletedIds);
+
+        return new TaskBatchResult(created, updatedIds, deletedIds);
+    }
+
+    @Override
+    @Transactional(transactionManager = "kanbanTransactionManager")
+    public AddEditTaskDto patchTask(String boardId, int taskId, Map<String, String> changes, String userId) {
+        BoardServiceImpl.validateBoardAccessAndOwnerShip(boardId, userId, boardRepository, boardAccessCache);
+
+        if (changes == null || changes.isEmpty()) {
+            throw new InvalidTaskFieldException("Request body must contain at least one of title, description, assignees or status");
+        }
+
+        // Files are not loaded, this path only touches the task row
+        TaskV3 task = taskV3Repository.findByIdAndBoardId(taskId, boardId)
+                .orElseThrow(() -> new ItemNotFoundException("Task with id " + taskId + " does not exist in board id: " + boardId));
+
+        ErrorResponse errorResponse = new ErrorResponse(HttpStatus.BAD_REQUEST.value(), "Validation error. Check 'errors' field for details", "");
+        for (String field : changes.keySet()) {
+            if (!PATCHABLE_FIELDS.contains(field)) {
+                errorResponse.addValidationError(field, "cannot be updated");
+            }
+        }
+
+        // Fields missing from the body keep their current value
+        AddEditTaskDto patched = new AddEditTaskDto();
+        patched.setTitle(changes.containsKey(AddEditTaskDto.Fields.title) ? changes.get(AddEditTaskDto.Fields.title) : task.getTitle());
+        patched.setDescription(changes.containsKey(AddEditTaskDto.Fields.description) ? changes.get(AddEditTaskDto.Fields.description) : task.getDescription());
+        patched.setAssignees(changes.containsKey(AddEditTaskDto.Fields.assignees) ? changes.get(AddEditTaskDto.Fields.assignees) : task.getAssignees());
+        addTextFieldErrors(patched, errorResponse, "");
+
+        StatusCatalog.CatalogStatus status = null;
+        if (changes.containsKey(AddEditTaskDto.Fields.status)) {
+            try {
+                status = statusCatalog.findById(boardId, Integer.parseInt(changes.get(AddEditTaskDto.Fields.status))).orElse(null);
+                if (status == null) {
+                    errorResponse.addValidationError(AddEditTaskDto.Fields.status, "does not exist");
+                }
+            } catch (NumberFormatException e) {
+                errorResponse.addValidationError(AddEditTaskDto.Fields.status, "Invalid status ID");
+            }
+        }
+
+        if (!errorResponse.getErrors().isEmpty()) {
+            throw new InvalidTaskFieldException("Validation error. Check 'errors' field for details", errorResponse.getErrors());
+        }
+
+        // TaskV3 uses dynamic updates, so only the columns that changed are written
+        task.setTitle(patched.getTitle().trim());
+        task.setDescription(patched.getDescription() != null ? patched.getDescription().trim() : null);
+        task.setAssignees(patched.getAssignees() != null ? patched.getAssignees().trim() : null);
+        if (status != null) {
+            task.setStatusV3(statusV3Repository.getReferenceById(status.id()));
+        }
+
+        boardChangeService.recordChange(boardId, BoardChange.EntityType.TASK, taskId, false);
+        return taskMapper.toAddEditTaskDto(task, statusName(task));
+    }
+
+    // Status of a batch operation, only statuses of the batch's board are accepted. Null if invalid or not found
+    private StatusCatalog.CatalogStatus findBatchStatus(String status, String boardId) {
+        try {
+            return statusCatalog.findById(boardId, Integer.parseInt(status)).orElse(null);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static AddEditTaskDto toAddEditTaskDto(TaskBatchOperation operation) {
+        AddEditTaskDto addEditTaskDto = new AddEditTaskDto();
+        addEditTaskDto.setTitle(operation.getTitle());
+        addEditTaskDto.setDescription(operation.getDescription());
+        addEditTaskDto.setAssignees(operation.getAssignees());
+        return addEditTaskDto;
     }
 
     @Override
     @Transactional(transactionManager = "kanbanTransactionManager")
     public AddEditTaskDtoWithAttachments updateTask(String boardId, int taskId, AddEditTaskDtoWithAttachments addEditTaskDto, String userId) {
-        BoardServiceImpl.validateBoardAccessAndOwnerShip(boardId, userId, boardRepository, boardCollaboratorsRepository);
+        BoardServiceImpl.validateBoardAccessAndOwnerShip(boardId, userId, boardRepository, boardAccessCache);
 
         // Fetch task with files
         TaskV3 task = taskV3Repository.findByIdAndBoardIdWithFiles(taskId, boardId)
@@ -175,43 +469,24 @@ public class TaskV3ServiceImpl implements TaskV3Service {
             if (addEditTaskDto.getNewAttachments() == null || addEditTaskDto.getNewAttachments().isEmpty()) {
                 updateTaskFields(task, addEditTaskDto); //update task field
                 TaskV3 updatedTask = taskV3Repository.save(task);
+                boardChangeService.recordChange(boardId, BoardChange.EntityType.TASK, taskId, false);
                 return mapTaskToDto(updatedTask);
             }
         }
 
-        // Get existing file names
-        Set<String> existingFileNames = task.getFiles().stream()
-                .map(FileStorage::getName)
-                .collect(Collectors.toSet());
-
-        // Get incoming file names
-        Set<String> incomingFileNames = addEditTaskDto.getNewAttachments() != null
-                ? addEditTaskDto.getNewAttachments().stream()
-                .map(file -> StringUtils.cleanPath(Objects.requireNonNull(file.getOriginalFilename())))
-                .collect(Collectors.toSet())
-                : Collections.emptySet();
-
         // Identify files to delete and add
-        Set<String> filesToDelete = new HashSet<>(existingFileNames);
-        filesToDelete.removeAll(incomingFileNames);
-
-        Set<String> filesToAdd = new HashSet<>(incomingFileNames);
-        filesToAdd.removeAll(existingFileNames);
+        AttachmentDiff attachmentDiff = diffAttachments(task.getFiles(), addEditTaskDto.getNewAttachments());
 
         // Delete files
-        if (!filesToDelete.isEmpty()) {
-            fileStorageServiceImpl.deleteFilesByNames(filesToDelete, task);
+        if (!attachmentDiff.filesToDelete().isEmpty()) {
+            fileStorageServiceImpl.deleteFilesByNames(attachmentDiff.filesToDelete(), task);
             taskV3Repository.save(task); // Persist changes to the task's file list after deletion
         }
 
         // Add new files
         List<String> unaddedFiles = new ArrayList<>();
-        if (!filesToAdd.isEmpty()) {
-            List<MultipartFile> filesToStore = addEditTaskDto.getNewAttachments().stream()
-                    .filter(file -> filesToAdd.contains(StringUtils.cleanPath(Objects.requireNonNull(file.getOriginalFilename()))))
-                    .collect(Collectors.toList());
-
-            unaddedFiles = fileStorageServiceImpl.validateAndStoreFiles(filesToStore, task);
+        if (!attachmentDiff.filesToStore().isEmpty()) {
+            unaddedFiles = fileStorageServiceImpl.validateAndStoreFiles(attachmentDiff.filesToStore(), task);
         }
 
         // Update task fields
@@ -226,11 +501,166 @@ public class TaskV3ServiceImpl implements TaskV3Service {
                     " files. The following files were not added: " + String.join(", ", unaddedFiles));
         }
 
+        boardChangeService.recordChange(boardId, BoardChange.EntityType.TASK, taskId, false);
         return mapTaskToDto(updatedTask);
     }
 
+    // Adds attachments to a task without touching its other fields or files. The multipart body is copied
+    // straight to disk before any transaction starts, so a slow upload holds no database connection.
+    @Override
+    public AddEditTaskDtoWithAttachments uploadAttachments(String boardId, int taskId, HttpServletRequest request, String userId) {
+        BoardServiceImpl.validateBoardAccessAndOwnerShip(boardId, userId, boardRepository, boardAccessCache);
+        Set<String> existingFilenames = findTaskWithFiles(boardId, taskId).getFiles().stream()
+                .map(FileStorage::getName)
+                .collect(Collectors.toSet());
+
+        List<FileStorageServiceImpl.StoredFile> storedFiles = fileStorageServiceImpl.storeStreamedFiles(request, existingFilenames);
+        try {
+            return writeTransaction.execute(status -> {
+                TaskV3 task = findTaskWithFiles(boardId, taskId);
+
+                // Files may have been added by another request while this one was uploading
+                Set<String> currentFilenames = task.getFiles().stream()
+                        .map(FileStorage::getName)
+                        .collect(Collectors.toSet());
+                for (FileStorageServiceImpl.StoredFile storedFile : storedFiles) {
+                    if (currentFilenames.contains(storedFile.name())) {
+                        throw new ConflictException("File " + storedFile.name() + " already exists in this task");
+                    }
+                }
+                if (currentFilenames.size() + storedFiles.size() > MAX_FILES) {
+                    throw new InvalidFileException("Each task can have at most " + MAX_FILES + " files");
+                }
+
+                if (!storedFiles.isEmpty()) {
+                    fileStorageServiceImpl.saveStoredFiles(storedFiles, task);
+                    boardChangeService.recordChange(boardId, BoardChange.EntityType.TASK, taskId, false);
+                }
+                return mapTaskToDto(task);
+            });
+        } catch (RuntimeException e) {
+            fileStorageServiceImpl.discardStoredFiles(storedFiles, null);
+            throw e;
+        }
+    }
+
+    // First step of a manifest update: tells the client which contents it has to upload. Nothing is changed.
+    @Override
+    @Transactional(readOnly = true, transactionManager = "kanbanTransactionManager")
+    public AttachmentManifestPlan planAttachments(String boardId, int taskId, AttachmentManifest manifest, String userId) {
+        BoardServiceImpl.validateBoardAccessAndOwnerShip(boardId, userId, boardRepository, boardAccessCache);
+        FileStorageServiceImpl.validateManifest(manifest);
+        TaskV3 task = findTaskWithFiles(boardId, taskId);
+
+        ManifestDiff manifestDiff = diffManifest(task.getFiles(), manifest.getFiles());
+        Set<String> missing = fileStorageServiceImpl.findMissingContents(boardId, manifestDiff.filesToAdd().stream()
+                .map(AttachmentManifest.Entry::getHash)
+                .collect(Collectors.toSet()));
+        return new AttachmentManifestPlan(new ArrayList<>(missing),
+                manifestDiff.filesToAdd().stream().map(AttachmentManifest.Entry::getName).sorted().collect(Collectors.toList()),
+                manifestDiff.filesToDelete().stream().sorted().collect(Collectors.toList()),
+                manifestDiff.unchanged().stream().sorted().collect(Collectors.toList()));
+    }
+
+    // Second step: the manifest again, with only the missing contents. The task's attachments become exactly the
+    // manifest, diffed by name and hash against what is stored at that moment. Like uploadAttachments, the body is
+    // read before the transaction starts.
+    @Override
+    public AddEditTaskDtoWithAttachments applyAttachmentManifest(String boardId, int taskId, HttpServletRequest request, String userId) {
+        BoardServiceImpl.validateBoardAccessAndOwnerShip(boardId, userId, boardRepository, boardAccessCache);
+        findTaskWithFiles(boardId, taskId);
+
+        FileStorageServiceImpl.ManifestUpload upload = fileStorageServiceImpl.storeManifestUpload(request);
+        try {
+            return writeTransaction.execute(status -> {
+                TaskV3 task = findTaskWithFiles(boardId, taskId);
+                ManifestDiff manifestDiff = diffManifest(task.getFiles(), upload.manifest().getFiles());
+                if (manifestDiff.filesToDelete().isEmpty() && manifestDiff.filesToAdd().isEmpty()) {
+                    return mapTaskToDto(task);
+                }
+
+                // Contents are referenced while the replaced files still hold them, a rename needs no upload
+                FileStorageServiceImpl.ManifestReferences references = fileStorageServiceImpl.referenceManifestContents(
+                        manifestDiff.filesToAdd(), upload.contents(), boardId);
+                if (!references.missing().isEmpty()) {
+                    // Also reached when a file of the board was deleted since the plan, the client plans again
+                    throw new ConflictException("Contents of the attachment manifest were not uploaded: " + String.join(", ", references.missing()));
+                }
+
+                // Replaced names are deleted before they are added again, deleteFilesByNames matches by name
+                fileStorageServiceImpl.deleteFilesByNames(manifestDiff.filesToDelete(), task);
+                fileStorageServiceImpl.saveManifestFiles(manifestDiff.filesToAdd(), references.blobPaths(), task);
+
+                boardChangeService.recordChange(boardId, BoardChange.EntityType.TASK, taskId, false);
+                return mapTaskToDto(task);
+            });
+        } finally {
+            // Contents that were not needed, or the whole upload when the transaction failed
+            fileStorageServiceImpl.discardTempBlobs(upload.contents().values());
+        }
+    }
+
+    private TaskV3 findTaskWithFiles(String boardId, int taskId) {
+        return taskV3Repository.findByIdAndBoardIdWithFiles(taskId, boardId)
+                .orElseThrow(() -> new ItemNotFoundException("Task with id " + taskId + " does not exist in board id: " + boardId));
+    }
+
+    // Names of stored files that are not in the upload any more, and uploaded files not stored yet
+    record AttachmentDiff(Set<String> filesToDelete, List<MultipartFile> filesToStore) {
+    }
+
+    static AttachmentDiff diffAttachments(List<FileStorage> existingFiles, List<MultipartFile> newAttachments) {
+        Set<String> existingFileNames = existingFiles.stream()
+                .map(FileStorage::getName)
+                .collect(Collectors.toSet());
+
+        // Each incoming name is cleaned once, and files are picked in the same pass
+        Set<String> incomingFileNames = new HashSet<>();
+        List<MultipartFile> filesToStore = new ArrayList<>();
+        if (newAttachments != null) {
+            for (MultipartFile file : newAttachments) {
+                String fileName = StringUtils.cleanPath(Objects.requireNonNull(file.getOriginalFilename()));
+                incomingFileNames.add(fileName);
+                if (!existingFileNames.contains(fileName)) {
+                    filesToStore.add(file);
+                }
+            }
+        }
+
+        Set<String> filesToDelete = new HashSet<>(existingFileNames);
+        filesToDelete.removeAll(incomingFileNames);
+        return new AttachmentDiff(filesToDelete, filesToStore);
+    }
+
+    // Stored names the manifest drops or gives another content, manifest entries not stored with their content yet,
+    // and names stored with the manifest's content. Files stored before the blob store have no hash and are replaced.
+    record ManifestDiff(Set<String> filesToDelete, List<AttachmentManifest.Entry> filesToAdd, Set<String> unchanged) {
+    }
+
+    static ManifestDiff diffManifest(List<FileStorage> existingFiles, List<AttachmentManifest.Entry> manifestFiles) {
+        Map<String, String> manifestHashes = new HashMap<>();
+        for (AttachmentManifest.Entry entry : manifestFiles) {
+            manifestHashes.put(entry.getName(), entry.getHash());
+        }
+
+        Set<String> filesToDelete = new HashSet<>();
+        Set<String> unchanged = new HashSet<>();
+        for (FileStorage file : existingFiles) {
+            if (file.getContentHash() != null && file.getContentHash().equals(manifestHashes.get(file.getName()))) {
+                unchanged.add(file.getName());
+            } else {
+                filesToDelete.add(file.getName());
+            }
+        }
+
+        List<AttachmentManifest.Entry> filesToAdd = manifestFiles.stream()
+                .filter(entry -> !unchanged.contains(entry.getName()))
+                .collect(Collectors.toList());
+        return new ManifestDiff(filesToDelete, filesToAdd, unchanged);
+    }
+
     private void updateTaskFields(TaskV3 task, AddEditTaskDtoWithAttachments addEditTaskDto) {
-        ErrorResponse errorResponse = validateTaskFields(addEditTaskDto);
+        ErrorResponse errorResponse = validateTaskFields(addEditTaskDto, task.getBoard().getId());
         if (errorResponse != null && !errorResponse.getErrors().isEmpty()) {
             throw new InvalidTaskFieldException("Validation error. Check 'errors' field for details", errorResponse.getErrors());
         }
@@ -240,15 +670,15 @@ public class TaskV3ServiceImpl implements TaskV3Service {
         task.setAssignees(addEditTaskDto.getAssignees() != null ? addEditTaskDto.getAssignees().trim() : null);
 
         if (addEditTaskDto.getStatus() != null && !addEditTaskDto.getStatus().isEmpty()) {
-            StatusV3 statusV3 = statusV3Repository.findById(Integer.parseInt(addEditTaskDto.getStatus()))
+            StatusCatalog.CatalogStatus status = statusCatalog.findById(task.getBoard().getId(), Integer.parseInt(addEditTaskDto.getStatus()))
                     .orElseThrow(() -> new ItemNotFoundException("Status with id " + addEditTaskDto.getStatus() + " does not exist"));
-            task.setStatusV3(statusV3);
+            task.setStatusV3(statusV3Repository.getReferenceById(status.id()));
         }
     }
 
     private AddEditTaskDtoWithAttachments mapTaskToDto(TaskV3 task) {
         // Initialize response DTO
-        AddEditTaskDtoWithAttachments response = modelMapper.map(task, AddEditTaskDtoWithAttachments.class);
+        AddEditTaskDtoWithAttachments response = taskMapper.toAddEditTaskDtoWithAttachments(task, statusName(task));
 
         // Initialize empty list for attachments
         List<FileAttachmentDto> existingAttachments = new ArrayList<>();
@@ -257,7 +687,7 @@ public class TaskV3ServiceImpl implements TaskV3Service {
         if (task.getFiles() != null && !task.getFiles().isEmpty()) {
             existingAttachments = task.getFiles().stream()
                     .filter(file -> file.getType() != null) // Add null check for type
-                    .map(file -> new FileAttachmentDto(file.getId(), file.getName(), file.getType(), file.getAddedOn()))
+                    .map(taskMapper::toFileAttachmentDto)
                     .collect(Collectors.toList());
         }
 
@@ -265,6 +695,14 @@ public class TaskV3ServiceImpl implements TaskV3Service {
         return response;
     }
 
+    // Name of the task's status from the catalog. The status may be a reference from getReferenceById, only its
+    // id can be read without loading it.
+    private String statusName(TaskV3 task) {
+        return statusCatalog.findById(task.getBoard().getId(), task.getStatusV3().getId())
+                .map(StatusCatalog.CatalogStatus::name)
+                .orElseGet(() -> task.getStatusV3().getName());
+    }
+
     private boolean isEmptyTaskDto(AddEditTaskDto dto) {
         return (dto.getTitle() == null || dto.getTitle().trim().isEmpty()) &&
                 (dto.getDescription() == null || dto.getDescription().trim().isEmpty()) &&
@@ -272,22 +710,10 @@ public class TaskV3ServiceImpl implements TaskV3Service {
                 (dto.getStatus() == null || dto.getStatus().trim().isEmpty());
     }
 
-    private ErrorResponse validateTaskFields(AddEditTaskDto addEditTaskDto) {
+    ErrorResponse validateTaskFields(AddEditTaskDto addEditTaskDto, String boardId) {
         ErrorResponse errorResponse = new ErrorResponse(HttpStatus.BAD_REQUEST.value(), "Validation error. Check 'errors' field for details", "");
 
-        if (addEditTaskDto.getTitle() == null || addEditTaskDto.getTitle().trim().isEmpty()) {
-            errorResponse.addValidationError(AddEditTaskDto.Fields.title, "must not be null");
-        } else if (addEditTaskDto.getTitle().trim().length() > MAX_TASK_TITLE_LENGTH) {
-            errorResponse.addValidationError(AddEditTaskDto.Fields.title, "size must be between 0 and " + MAX_TASK_TITLE_LENGTH);
-        }
-
-        if (addEditTaskDto.getDescription() != null && addEditTaskDto.getDescription().trim().length() > MAX_TASK_DESCRIPTION_LENGTH) {
-            errorResponse.addValidationError(AddEditTaskDto.Fields.description, "size must be between 0 and " + MAX_TASK_DESCRIPTION_LENGTH);
-        }
-
-        if (addEditTaskDto.getAssignees() != null && addEditTaskDto.getAssignees().trim().length() > MAX_TASK_ASSIGNEES_LENGTH) {
-            errorResponse.addValidationError(AddEditTaskDto.Fields.assignees, "size must be between 0 and " + MAX_TASK_ASSIGNEES_LENGTH);
-        }
+        addTextFieldErrors(addEditTaskDto, errorResponse, "");
 
         if (addEditTaskDto.getStatus() != null && !addEditTaskDto.getStatus().isEmpty()) {
             try {
@@ -296,7 +722,7 @@ public class TaskV3ServiceImpl implements TaskV3Service {
                 errorResponse.addValidationError(AddEditTaskDto.Fields.status, "Invalid status ID");
             }
 
-            if (errorResponse.getErrors().isEmpty() && !statusV3Repository.existsById(Integer.parseInt(addEditTaskDto.getStatus()))) {
+            if (errorResponse.getErrors().isEmpty() && statusCatalog.findById(boardId, Integer.parseInt(addEditTaskDto.getStatus())).isEmpty()) {
                 errorResponse.addValidationError(AddEditTaskDto.Fields.status, "does not exist");
             }
         }
@@ -308,5 +734,21 @@ public class TaskV3ServiceImpl implements TaskV3Service {
 
         return errorResponse;
     }
-}
 
+    // Title, description and assignees checks, fieldPrefix locates the field inside a batch request
+    private static void addTextFieldErrors(AddEditTaskDto addEditTaskDto, ErrorResponse errorResponse, String fieldPrefix) {
+        if (addEditTaskDto.getTitle() == null || addEditTaskDto.getTitle().trim().isEmpty()) {
+            errorResponse.addValidationError(fieldPrefix + AddEditTaskDto.Fields.title, "must not be null");
+        } else if (addEditTaskDto.getTitle().trim().length() > MAX_TASK_TITLE_LENGTH) {
+            errorResponse.addValidationError(fieldPrefix + AddEditTaskDto.Fields.title, "size must be between 0 and " + MAX_TASK_TITLE_LENGTH);
+        }
+
+        if (addEditTaskDto.getDescription() != null && addEditTaskDto.getDescription().trim().length() > MAX_TASK_DESCRIPTION_LENGTH) {
+            errorResponse.addValidationError(fieldPrefix + AddEditTaskDto.Fields.description, "size must be between 0 and " + MAX_TASK_DESCRIPTION_LENGTH);
+        }
+
+        if (addEditTaskDto.getAssignees() != null && addEditTaskDto.getAssignees().trim().length() > MAX_TASK_ASSIGNEES_LENGTH) {
+            errorResponse.addValidationError(fieldPrefix + AddEditTaskDto.Fields.assignees, "size must be between 0 and " + MAX_TASK_ASSIGNEES_LENGTH);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.pl03.kanban.services.impl;
+
+import com.pl03.kanban.exceptions.ServiceOverloadedException;
+import com.pl03.kanban.user_entities.User;
+import com.pl03.kanban.user_entities.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+// Local replica of the shared user directory (itbkk_shared), which is remote and often slow.
+// A background sync reloads every user on kanban.user-directory.sync-interval, and lookups that miss or find an
+// entry older than max-staleness go to the shared database and store what they read. Remote lookups are capped
+// at remote-timeout: a slow shared database answers 503, except for lookups by oid (token refresh) which fall
+// back to the replica's last known copy of the user.
+// The replica keeps no password hashes. Login reads the user from the shared database every time, so a changed
+// password or a removed user takes effect at once.
+@Slf4j
+@Component
+public class UserDirectory {
+
+    private final UserRepository userRepository;
+    private final long maxStalenessMillis;
+    private final long remoteTimeoutMillis;
+    private final ThreadPoolExecutor remoteLookups;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter staleServed;
+
+    // Swapped as a whole by the sync, lookups add to the current one
+    private volatile Replica replica = new Replica();
+
+    @Autowired
+    public UserDirectory(UserRepository userRepository,
+                         MeterRegistry meterRegistry,
+                         @Value("${kanban.user-directory.max-staleness:PT15M}") Duration maxStaleness,
+                         @Value("${kanban.user-directory.remote-timeout:PT2S}") Duration remoteTimeout,
+                         @Value("${kanban.user-directory.remote-threads:4}") int remoteThreads) {
+        this.userRepository = userRepository;
+        this.maxStalenessMillis = maxStaleness.toMillis();
+        this.remoteTimeoutMillis = remoteTimeout.toMillis();
+        this.remoteLookups = new ThreadPoolExecutor(remoteThreads, remoteThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(remoteThreads * 16), new CustomizableThreadFactory("user-directory-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.hits = Counter.builder("kanban.user-directory.lookups").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("kanban.user-directory.lookups").tag("result", "miss").register(meterRegistry);
+        this.staleServed = Counter.builder("kanban.user-directory.lookups").tag("result", "stale").register(meterRegistry);
+        Gauge.builder("kanban.user-directory.size", this, directory -> directory.replica.byOid.size())
+                .register(meterRegistry);
+        Gauge.builder("kanban.user-directory.sync.age", this, directory -> (System.currentTimeMillis() - directory.replica.syncedAt) / 1000.0)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    // For login only: the user with its password hash, always read from the shared database
+    public User findWithPassword(String username) {
+        if (username == null) {
+            return null;
+        }
+        User user = remote(() -> userRepository.findByUsername(username));
+        if (user == null) {
+            replica.remove(key(username));
+            return null;
+        }
+        store(user);
+        return user;
+    }
+
+    public Optional<User> findByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        Entry entry = replica.byEmail.get(key(email));
+        if (isFresh(entry)) {
+            hits.increment();
+            return Optional.of(entry.user());
+        }
+        misses.increment();
+        return Optional.ofNullable(store(remote(() -> userRepository.findByEmail(email).orElse(null))));
+    }
+
+    // Used by token refresh, which keeps working on the last known copy while the shared database is unreachable
+    public User findByOid(String oid) {
+        if (oid == null) {
+            return null;
+        }
+        Entry entry = replica.byOid.get(oid);
+        if (isFresh(entry)) {
+            hits.increment();
+            return entry.user();
+        }
+        misses.increment();
+        try {
+            return store(remote(() -> userRepository.findByOid(oid)));
+        } catch (ServiceOverloadedException | DataAccessException e) {
+            if (entry == null) {
+                throw e;
+            }
+            staleServed.increment();
+            log.warn("Shared user directory unavailable, serving the replica's copy of {}: {}", oid, e.getMessage());
+            return entry.user();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${kanban.user-directory.sync-interval:PT5M}")
+    public void sync() {
+        long startedAt = System.currentTimeMillis();
+        List<User> users;
+        try {
+            users = userRepository.findAll();
+        } catch (RuntimeException e) {
+            log.warn("User directory sync failed, keeping the replica from {}", new Date(replica.syncedAt), e);
+            return;
+        }
+
+        // Users deleted from the shared database disappear here, lookups made during the sync are re-read on demand
+        Replica synced = new Replica(startedAt);
+        users.forEach(user -> synced.put(user, startedAt));
+        replica = synced;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        remoteLookups.shutdownNow();
+    }
+
+    private boolean isFresh(Entry entry) {
+        return entry != null && System.currentTimeMillis() - entry.readAt() <= maxStalenessMillis;
+    }
+
+    // Returns the replica's copy, without the password hash
+    private User store(User user) {
+        if (user == null) {
+            return null;
+        }
+        return replica.put(user, System.currentTimeMillis());
+    }
+
+    private <T> T remote(Supplier<T> lookup) {
+        Future<T> result;
+        try {
+            result = remoteLookups.submit(lookup::get);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceOverloadedException("The user directory is busy, please try again shortly", 1);
+        }
+
+        try {
+            return result.get(remoteTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            throw new ServiceOverloadedException("The user directory did not answer in time, please try again shortly", 1);
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading the user directory", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("User directory lookup failed", e.getCause());
+        }
+    }
+
+    // Usernames and emails compare case-insensitively, like the shared database's collation
+    private static String key(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private record Entry(User user, long readAt) {
+    }
+
+    private static final class Replica {
+        private final long syncedAt;
+        private final Map<String, Entry> byOid = new ConcurrentHashMap<>();
+        private final Map<String, Entry> byUsername = new ConcurrentHashMap<>();
+        private final Map<String, Entry> byEmail = new ConcurrentHashMap<>();
+
+        private Replica() {
+            this(0L);
+        }
+
+        private Replica(long syncedAt) {
+            this.syncedAt = syncedAt;
+        }
+
+        private User put(User user, long readAt) {
+            Entry entry = new Entry(withoutPassword(user), readAt);
+            Entry previous = byOid.put(user.getOid(), entry);
+            // A renamed user must not stay reachable under the old username or email
+            if (previous != null) {
+                byUsername.remove(key(previous.user().getUsername()), previous);
+                byEmail.remove(key(previous.user().getEmail()), previous);
+            }
+            byUsername.put(key(user.getUsername()), entry);
+            byEmail.put(key(user.getEmail()), entry);
+            return entry.user();
+        }
+
+        // A user no longer found under this username, by a login
+        private void remove(String usernameKey) {
+            Entry entry = byUsername.remove(usernameKey);
+            if (entry != null) {
+                byOid.remove(entry.user().getOid(), entry);
+                byEmail.remove(key(entry.user().getEmail()), entry);
+            }
+        }
+
+        private static User withoutPassword(User user) {
+            return User.builder()
+                    .oid(user.getOid())
+                    .name(user.getName())
+                    .username(user.getUsername())
+                    .email(user.getEmail())
+                    .role(user.getRole())
+                    .build();
+        }
+    }
+}
@@ -7,13 +7,11 @@ import com.pl03.kanban.kanban_entities.Users;
 import com.pl03.kanban.kanban_entities.repositories.UsersRepository;
 import com.pl03.kanban.services.UserService;
 import com.pl03.kanban.user_entities.User;
-import com.pl03.kanban.user_entities.UserRepository;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
@@ -23,16 +21,16 @@ import java.util.*;
 @Service
 public class UserServiceImpl implements UserService {
 
-    private final UserRepository userRepository; // shared user db
+    private final UserDirectory userDirectory; // replica of the shared user db
     private final UsersRepository usersRepository; // our own user db
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordVerifier passwordVerifier;
     private final JwtTokenUtils jwtTokenUtils;
 
     @Autowired
-    public UserServiceImpl(UsersRepository usersRepository, PasswordEncoder passwordEncoder, JwtTokenUtils jwtTokenUtils, UserRepository userRepository) {
+    public UserServiceImpl(UsersRepository usersRepository, PasswordVerifier passwordVerifier, JwtTokenUtils jwtTokenUtils, UserDirectory userDirectory) {
         this.usersRepository = usersRepository;
-        this.passwordEncoder = passwordEncoder;
-        this.userRepository = userRepository;
+        this.passwordVerifier = passwordVerifier;
+        this.userDirectory = userDirectory;
         this.jwtTokenUtils = jwtTokenUtils;
     }
 
@@ -63,9 +61,11 @@ public class UserServiceImpl implements UserService {
         }
 
         try {
-            User user = userRepository.findByUsername(loginRequest.getUserName());
+            // Credentials come from the shared database, the replica only serves refresh and collaborator lookups
+            User user = userDirectory.findWithPassword(loginRequest.getUserName());
 
-            if (user == null || !passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {
+            // Argon2 runs on the verifier pool, a full queue answers 503 instead of tying up this thread
+            if (user == null || !passwordVerifier.matches(loginRequest.getPassword(), user.getPassword())) {
                 throw new AuthenticationException("The username or password is incorrect.");
             }
 
@@ -100,7 +100,7 @@ public class UserServiceImpl implements UserService {
 
         Map<String, Object> claims = jwtTokenUtils.getClaimsFromToken(refreshToken);
         String oid = (String) claims.get("oid");
-        User user = userRepository.findByOid(oid);
+        User user = userDirectory.findByOid(oid);
 
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not found");
@@ -1,27 +1,82 @@
 package com.pl03.kanban.utils;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.pl03.kanban.user_entities.User;
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.io.Decoders;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtTokenUtils {
 
-    @Value("${jwt.secret}")
-    private String SECRET_KEY;
+    // jwt.secret is base64, decoded the same way signWith(SignatureAlgorithm, String) did so existing tokens stay valid
+    private final SecretKey signingKey;
+    private final JwtParser parser;
 //    SignatureAlgorithm signatureAlgorithm = SignatureAlgorithm.HS256;
 
-    @Value("${jwt.expiration}")
-    private Long expiration;
-
-    @Value("${jwt.refresh-expiration}")
-    private Long refreshExpiration;
+    private final long expiration;
+
+    private final long refreshExpiration;
+
+    // Claims of tokens that already passed verification, keyed by the SHA-256 of the token and dropped when
+    // the token expires. Clients resend the same access token until it expires, so most requests end here.
+    // Null when jwt.cache.max-tokens is 0, then every call verifies the signature.
+    private final Cache<String, Claims> verifiedTokens;
+
+    @Autowired
+    public JwtTokenUtils(@Value("${jwt.secret}") String secretKey,
+                         @Value("${jwt.expiration}") long expiration,
+                         @Value("${jwt.refresh-expiration}") long refreshExpiration,
+                         @Value("${jwt.cache.max-tokens:100000}") long maxCachedTokens,
+                         MeterRegistry meterRegistry) {
+        this.signingKey = new SecretKeySpec(Decoders.BASE64.decode(secretKey), SignatureAlgorithm.HS256.getJcaName());
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.expiration = expiration;
+        this.refreshExpiration = refreshExpiration;
+        this.verifiedTokens = maxCachedTokens <= 0 ? null : Caffeine.newBuilder()
+                .maximumSize(maxCachedTokens)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        Date expiresAt = claims.getExpiration();
+                        long remaining = expiresAt == null ? 0 : expiresAt.getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remaining, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        if (verifiedTokens != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwtVerifiedTokens");
+        }
+    }
 
 
 
@@ -67,7 +122,7 @@ public class JwtTokenUtils {
                 .setIssuer("https://intproj23.sit.kmutt.ac.th/pl3/")
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(SignatureAlgorithm.HS256, SECRET_KEY)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -101,16 +156,36 @@ public class JwtTokenUtils {
 //    }
     public boolean validateToken(String token) {
         try {
-            Jwts.parser().setSigningKey(SECRET_KEY).parseClaimsJws(token);
+            getClaimsFromToken(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
     }
 
+    // Throws the parser's exceptions for invalid tokens, those are never cached
     public Map<String, Object> getClaimsFromToken(String token) {
-        return Jwts.parser().setSigningKey(SECRET_KEY).parseClaimsJws(token).getBody();
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("JWT String argument cannot be null or empty.");
+        }
+        if (verifiedTokens == null) {
+            return parser.parseClaimsJws(token).getBody();
+        }
+        String digest = sha256(token);
+        Claims claims = verifiedTokens.getIfPresent(digest);
+        if (claims == null) {
+            claims = parser.parseClaimsJws(token).getBody();
+            verifiedTokens.put(digest, claims);
+        }
+        return claims;
     }
 
-
+    private static String sha256(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(messageDigest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
 }
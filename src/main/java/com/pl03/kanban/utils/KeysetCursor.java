@@ -0,0 +1,30 @@
+package com.pl03.kanban.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.stream.Collectors;
+
+// Opaque cursor for keyset pagination: each key part is base64url encoded and joined with '.'
+public final class KeysetCursor {
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(String... parts) {
+        return Arrays.stream(parts)
+                .map(part -> Base64.getUrlEncoder().withoutPadding().encodeToString(part.getBytes(StandardCharsets.UTF_8)))
+                .collect(Collectors.joining("."));
+    }
+
+    // Throws IllegalArgumentException if the cursor is malformed or has the wrong number of parts
+    public static String[] decode(String cursor, int expectedParts) {
+        String[] encoded = cursor.split("\\.", -1);
+        if (encoded.length != expectedParts) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return Arrays.stream(encoded)
+                .map(part -> new String(Base64.getUrlDecoder().decode(part), StandardCharsets.UTF_8))
+                .toArray(String[]::new);
+    }
+}
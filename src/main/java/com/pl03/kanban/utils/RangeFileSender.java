@@ -0,0 +1,213 @@
+package com.pl03.kanban.utils;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.Globals;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Sends a file with conditional GET and byte range support (Range, If-Range, 206 and multipart/byteranges).
+// A full file or single range of at least SENDFILE_MIN_SIZE is handed to Tomcat's sendfile, which goes from the page
+// cache to the socket. Smaller responses, multipart/byteranges and connectors without sendfile are copied with
+// FileChannel.transferTo into the response stream, through the channel adapter's small buffer.
+public final class RangeFileSender {
+
+    // Below this size a plain write is cheaper than setting up sendfile, same threshold as Tomcat's DefaultServlet
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+
+    private RangeFileSender() {
+    }
+
+    public static void send(HttpServletRequest request, HttpServletResponse response, Path file,
+                            String contentType, String contentDisposition) throws IOException {
+        long length = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDisposition);
+        // Answers 304 or 412 for If-None-Match, If-Modified-Since, If-Match and If-Unmodified-Since
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        List<long[]> ranges = requestedRanges(request, length, etag, lastModified);
+        if (ranges == null) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            // Not sendError: the /error dispatch runs without the caller's authentication and would answer 401
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setContentLength(0);
+            return;
+        }
+
+        boolean head = HttpMethod.HEAD.matches(request.getMethod());
+        if (ranges.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(contentType);
+            sendRange(request, response, file, 0, length, head);
+        } else if (ranges.size() == 1) {
+            long[] range = ranges.get(0);
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setContentType(contentType);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(range, length));
+            sendRange(request, response, file, range[0], range[1] - range[0], head);
+        } else {
+            sendMultipart(response, file, ranges, length, contentType, head);
+        }
+    }
+
+    // Empty for a full response, null when the Range header cannot be satisfied.
+    // Each range is {start, end exclusive}. Like Spring's HttpRange.toResourceRegions, overlapping ranges are refused,
+    // so a response never sends more bytes than the file has.
+    private static List<long[]> requestedRanges(HttpServletRequest request, long length, String etag, long lastModified) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null || !HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return List.of();
+        }
+        // A Range for an older version of the file is ignored and the whole current file is sent
+        if (!ifRangeMatches(request, etag, lastModified)) {
+            return List.of();
+        }
+
+        List<HttpRange> httpRanges;
+        try {
+            httpRanges = HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            // A malformed Range header is ignored, as RFC 9110 asks
+            return List.of();
+        }
+
+        List<long[]> ranges = new ArrayList<>(httpRanges.size());
+        for (HttpRange httpRange : httpRanges) {
+            long start;
+            long end;
+            try {
+                start = httpRange.getRangeStart(length);
+                end = httpRange.getRangeEnd(length);
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            if (start < length && start <= end) {
+                ranges.add(new long[]{start, end + 1});
+            }
+        }
+        return ranges.isEmpty() || overlap(ranges) ? null : ranges;
+    }
+
+    private static boolean overlap(List<long[]> ranges) {
+        if (ranges.size() < 2) {
+            return false;
+        }
+        List<long[]> sorted = new ArrayList<>(ranges);
+        sorted.sort(Comparator.comparingLong(range -> range[0]));
+        for (int i = 1; i < sorted.size(); i++) {
+            if (sorted.get(i)[0] < sorted.get(i - 1)[1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        // Entity tags must match strongly, so a weak tag never does
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static void sendRange(HttpServletRequest request, HttpServletResponse response, Path file,
+                                  long start, long count, boolean head) throws IOException {
+        response.setContentLengthLong(count);
+        if (head) {
+            return;
+        }
+
+        // Tomcat streams the file itself after the handler returns, straight from the page cache to the socket
+        if (count >= SENDFILE_MIN_SIZE && Boolean.TRUE.equals(request.getAttribute(Globals.SENDFILE_SUPPORTED_ATTR))) {
+            request.setAttribute(Globals.SENDFILE_FILENAME_ATTR, file.toAbsolutePath().toString());
+            request.setAttribute(Globals.SENDFILE_FILE_START_ATTR, start);
+            request.setAttribute(Globals.SENDFILE_FILE_END_ATTR, start + count);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            transfer(channel, start, count, Channels.newChannel(response.getOutputStream()));
+        }
+    }
+
+    private static void sendMultipart(HttpServletResponse response, Path file, List<long[]> ranges, long length,
+                                      String contentType, boolean head) throws IOException {
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long contentLength = 0;
+        for (long[] range : ranges) {
+            byte[] partHeader = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + contentRange(range, length) + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(partHeader);
+            contentLength += partHeader.length + range[1] - range[0];
+        }
+        byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        contentLength += closing.length;
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        if (head) {
+            return;
+        }
+
+        OutputStream out = response.getOutputStream();
+        WritableByteChannel target = Channels.newChannel(out);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (int i = 0; i < ranges.size(); i++) {
+                long[] range = ranges.get(i);
+                out.write(partHeaders.get(i));
+                transfer(channel, range[0], range[1] - range[0], target);
+            }
+        }
+        out.write(closing);
+    }
+
+    private static void transfer(FileChannel channel, long position, long count, WritableByteChannel target) throws IOException {
+        while (count > 0) {
+            long sent = channel.transferTo(position, count, target);
+            if (sent <= 0) {
+                throw new EOFException("File ended before the requested range was sent");
+            }
+            position += sent;
+            count -= sent;
+        }
+    }
+
+    private static String contentRange(long[] range, long length) {
+        return "bytes " + range[0] + "-" + (range[1] - 1) + "/" + length;
+    }
+}
@@ -0,0 +1,297 @@
+package com.pl03.kanban.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Replays a mix of board calls against a running instance (usually the perf profile) and reports
+// latency percentiles and throughput per endpoint.
+//
+//   mvn -Pperf exec:java -Dexec.args="-users=32 -duration=60s -mix=list:50,detail:25,move:20,upload:5"
+//
+// Every virtual user logs in as one of the seeded users and works on the board that user owns.
+// Options: -baseUrl, -users, -warmup, -duration, -boards and -tasks (must match the seeder), -mix, -out (JSON report).
+public class LoadDriver {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String BOUNDARY = "perf-load-driver-boundary";
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(Executors.newFixedThreadPool(4))
+            .build();
+    private final String baseUrl;
+    private final int boards;
+    private final int tasksPerBoard;
+    private final List<Endpoint> mix;
+    private final int totalWeight;
+
+    private LoadDriver(String baseUrl, int boards, int tasksPerBoard, List<Endpoint> mix) {
+        this.baseUrl = baseUrl;
+        this.boards = boards;
+        this.tasksPerBoard = tasksPerBoard;
+        this.mix = mix;
+        this.totalWeight = mix.stream().mapToInt(Endpoint::weight).sum();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int users = Integer.parseInt(options.getOrDefault("users", "32"));
+        Duration warmup = parseDuration(options.getOrDefault("warmup", "10s"));
+        Duration duration = parseDuration(options.getOrDefault("duration", "60s"));
+        int boards = Integer.parseInt(options.getOrDefault("boards", "1000"));
+        int tasks = Integer.parseInt(options.getOrDefault("tasks", "100000"));
+
+        LoadDriver driver = new LoadDriver(options.getOrDefault("baseUrl", "http://localhost:8080"), boards, tasks / boards,
+                parseMix(options.getOrDefault("mix", "list:50,detail:25,move:20,upload:5")));
+        Map<String, Stats> results = driver.run(users, warmup, duration);
+
+        printReport(results, duration);
+        if (options.containsKey("out")) {
+            writeJson(Path.of(options.get("out")), results, users, duration);
+        }
+        System.exit(0);
+    }
+
+    private Map<String, Stats> run(int users, Duration warmup, Duration duration) throws Exception {
+        System.out.printf("Logging in %d virtual users...%n", users);
+        List<String> tokens = new ArrayList<>(users);
+        for (int user = 0; user < users; user++) {
+            tokens.add(login(user % boards));
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(users);
+        long warmupEnd = System.nanoTime() + warmup.toNanos();
+        long end = warmupEnd + duration.toNanos();
+        System.out.printf("Warming up for %ds, then measuring for %ds...%n", warmup.toSeconds(), duration.toSeconds());
+
+        List<Future<Map<String, Stats>>> futures = new ArrayList<>(users);
+        for (int user = 0; user < users; user++) {
+            int board = user % boards;
+            String token = tokens.get(user);
+            futures.add(workers.submit(() -> runVirtualUser(board, token, warmupEnd, end)));
+        }
+
+        // Each virtual user keeps its own samples, they are merged once at the end
+        Map<String, Stats> merged = new TreeMap<>();
+        for (Future<Map<String, Stats>> future : futures) {
+            future.get().forEach((name, stats) -> merged.computeIfAbsent(name, key -> new Stats()).merge(stats));
+        }
+        workers.shutdown();
+        return merged;
+    }
+
+    private Map<String, Stats> runVirtualUser(int board, String token, long warmupEnd, long end) {
+        Map<String, Stats> stats = new HashMap<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            Endpoint endpoint = pick(random.nextInt(totalWeight));
+            HttpRequest request = endpoint.request(this, board, random.nextInt(tasksPerBoard), token);
+            boolean ok;
+            try {
+                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                ok = response.statusCode() < 400;
+            } catch (IOException e) {
+                ok = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            long elapsed = System.nanoTime() - now;
+            if (now >= warmupEnd) {
+                stats.computeIfAbsent(endpoint.name(), key -> new Stats()).record(elapsed, ok);
+            }
+        }
+        return stats;
+    }
+
+    private Endpoint pick(int roll) {
+        for (Endpoint endpoint : mix) {
+            roll -= endpoint.weight();
+            if (roll < 0) {
+                return endpoint;
+            }
+        }
+        return mix.get(mix.size() - 1);
+    }
+
+    private String login(int user) throws IOException, InterruptedException {
+        String body = OBJECT_MAPPER.writeValueAsString(Map.of("userName", PerfData.username(user), "password", PerfData.PASSWORD));
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login of " + PerfData.username(user) + " failed with " + response.statusCode() + ": " + response.body());
+        }
+        return (String) OBJECT_MAPPER.readValue(response.body(), Map.class).get("access_token");
+    }
+
+    private HttpRequest.Builder boardRequest(int board, String path, String token) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/v3/boards/" + PerfData.boardId(board) + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token);
+    }
+
+    private HttpRequest listTasks(int board, int task, String token) {
+        return boardRequest(board, "/tasks", token).GET().build();
+    }
+
+    private HttpRequest taskDetail(int board, int task, String token) {
+        return boardRequest(board, "/tasks/" + PerfData.taskId(board, task, tasksPerBoard), token).GET().build();
+    }
+
+    // Drag and drop on the board: a PATCH of the status only
+    private HttpRequest moveTask(int board, int task, String token) {
+        int status = PerfData.statusId(board, ThreadLocalRandom.current().nextInt(PerfData.STATUS_NAMES.length));
+        return boardRequest(board, "/tasks/" + PerfData.taskId(board, task, tasksPerBoard), token)
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"status\":\"" + status + "\"}"))
+                .build();
+    }
+
+    // Edit form with one small attachment, which replaces the attachments of the task
+    private HttpRequest uploadAttachment(int board, int task, String token) {
+        String taskJson = "{\"title\":\"Task " + task + " of board " + board + "\"}";
+        byte[] file = ("attachment of task " + task + "\n").repeat(64).getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writePart(body, "task", null, "application/json", taskJson.getBytes(StandardCharsets.UTF_8));
+        writePart(body, "files", "perf-" + ThreadLocalRandom.current().nextInt(1000) + ".txt", "text/plain", file);
+        body.writeBytes(("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return boardRequest(board, "/tasks/" + PerfData.taskId(board, task, tasksPerBoard), token)
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+    }
+
+    private static void writePart(ByteArrayOutputStream body, String name, String fileName, String contentType, byte[] content) {
+        String header = "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + name + "\"" + (fileName != null ? "; filename=\"" + fileName + "\"" : "") + "\r\n"
+                + "Content-Type: " + contentType + "\r\n\r\n";
+        body.writeBytes(header.getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(content);
+        body.writeBytes("\r\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private record Endpoint(String name, int weight) {
+        HttpRequest request(LoadDriver driver, int board, int task, String token) {
+            return switch (name) {
+                case "list" -> driver.listTasks(board, task, token);
+                case "detail" -> driver.taskDetail(board, task, token);
+                case "move" -> driver.moveTask(board, task, token);
+                case "upload" -> driver.uploadAttachment(board, task, token);
+                default -> throw new IllegalArgumentException("Unknown endpoint " + name);
+            };
+        }
+    }
+
+    private static final class Stats {
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+
+        void record(long nanos, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        void merge(Stats other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.latencies[i], true);
+            }
+            errors += other.errors;
+        }
+
+        // Nearest-rank percentile in milliseconds, the samples are sorted on first use
+        double percentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            Arrays.sort(latencies, 0, count);
+            int rank = (int) Math.ceil(percentile / 100 * count);
+            return latencies[Math.max(rank - 1, 0)] / 1e6;
+        }
+    }
+
+    private static void printReport(Map<String, Stats> results, Duration duration) {
+        System.out.printf("%n%-8s %9s %7s %9s %9s %9s %9s %9s%n", "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        Stats total = new Stats();
+        results.forEach((name, stats) -> {
+            printRow(name, stats, duration);
+            total.merge(stats);
+        });
+        printRow("total", total, duration);
+    }
+
+    private static void printRow(String name, Stats stats, Duration duration) {
+        System.out.printf("%-8s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", name, stats.count, stats.errors,
+                stats.count / (double) duration.toSeconds(), stats.percentile(50), stats.percentile(95), stats.percentile(99), stats.percentile(100));
+    }
+
+    private static void writeJson(Path out, Map<String, Stats> results, int users, Duration duration) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("users", users);
+        report.put("durationSeconds", duration.toSeconds());
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        results.forEach((name, stats) -> endpoints.put(name, Map.of(
+                "requests", stats.count,
+                "errors", stats.errors,
+                "throughput", stats.count / (double) duration.toSeconds(),
+                "p50", stats.percentile(50),
+                "p95", stats.percentile(95),
+                "p99", stats.percentile(99),
+                "max", stats.percentile(100))));
+        report.put("endpoints", endpoints);
+        Files.writeString(out, OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+        System.out.println("Report written to " + out.toAbsolutePath());
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("-") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected -name=value, got " + arg);
+            }
+            options.put(arg.substring(1, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+
+    // 90s, 2m or a plain number of seconds
+    private static Duration parseDuration(String value) {
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value.endsWith("s") ? value.substring(0, value.length() - 1) : value));
+    }
+
+    private static List<Endpoint> parseMix(String value) {
+        List<Endpoint> mix = new ArrayList<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split(":");
+            String name = parts[0].trim();
+            if (!List.of("list", "detail", "move", "upload").contains(name)) {
+                throw new IllegalArgumentException("Unknown endpoint " + name + " in -mix, expected list, detail, move or upload");
+            }
+            mix.add(new Endpoint(name, Integer.parseInt(parts[1].trim())));
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,37 @@
+package com.pl03.kanban.perf;
+
+// Layout of the synthetic data set, shared by PerfDataSeeder and LoadDriver so the driver can address
+// boards, statuses and tasks without listing them first.
+// User i owns board i, every board has the four default statuses and the same number of tasks.
+public final class PerfData {
+
+    public static final String PASSWORD = "perf-Passw0rd";
+    public static final String[] STATUS_NAMES = {"No Status", "To Do", "Doing", "Done"};
+
+    private PerfData() {
+    }
+
+    public static String oid(int user) {
+        return String.format("00000000-0000-4000-8000-%012d", user + 1);
+    }
+
+    public static String username(int user) {
+        return String.format("perf%05d", user);
+    }
+
+    public static String email(int user) {
+        return username(user) + "@perf.local";
+    }
+
+    public static String boardId(int board) {
+        return String.format("perf%06d", board);
+    }
+
+    public static int statusId(int board, int status) {
+        return board * STATUS_NAMES.length + status + 1;
+    }
+
+    public static int taskId(int board, int task, int tasksPerBoard) {
+        return board * tasksPerBoard + task + 1;
+    }
+}
@@ -0,0 +1,143 @@
+package com.pl03.kanban.perf;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// Fills the embedded databases with the data set described by PerfData, before the first request is served.
+// Rows are written with plain JDBC batches, going through the services would take longer than the test itself.
+@Slf4j
+@Component
+@Profile("perf")
+public class PerfDataSeeder implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate kanbanJdbc;
+    private final JdbcTemplate userJdbc;
+    private final PasswordEncoder passwordEncoder;
+    private final int boards;
+    private final int tasksPerBoard;
+    private final int collaboratorsPerBoard;
+
+    public PerfDataSeeder(@Qualifier("kanbanDataSource") DataSource kanbanDataSource,
+                          @Qualifier("userDataSource") DataSource userDataSource,
+                          PasswordEncoder passwordEncoder,
+                          @Value("${kanban.perf.boards:1000}") int boards,
+                          @Value("${kanban.perf.tasks:100000}") int tasks,
+                          @Value("${kanban.perf.collaborators:5000}") int collaborators) {
+        this.kanbanJdbc = new JdbcTemplate(kanbanDataSource);
+        this.userJdbc = new JdbcTemplate(userDataSource);
+        this.passwordEncoder = passwordEncoder;
+        this.boards = boards;
+        this.tasksPerBoard = tasks / boards;
+        // A board can not have its owner as a collaborator
+        this.collaboratorsPerBoard = Math.min(collaborators / boards, boards - 1);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Integer existing = kanbanJdbc.queryForObject("SELECT COUNT(*) FROM kanban_entities.board", Integer.class);
+        if (existing != null && existing > 0) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        seedUsers();
+        seedBoards();
+        seedStatusesAndTasks();
+        seedCollaborators();
+        seedIdGenerator();
+        log.info("Perf data seeded: {} boards, {} tasks, {} collaborators in {} ms",
+                boards, boards * tasksPerBoard, boards * collaboratorsPerBoard, System.currentTimeMillis() - start);
+    }
+
+    private void seedUsers() {
+        // Argon2 is slow on purpose, every user shares one hash of PerfData.PASSWORD
+        String passwordHash = passwordEncoder.encode(PerfData.PASSWORD);
+        List<Object[]> sharedUsers = new ArrayList<>(boards);
+        List<Object[]> kanbanUsers = new ArrayList<>(boards);
+        for (int user = 0; user < boards; user++) {
+            String name = "Perf User " + user;
+            sharedUsers.add(new Object[]{PerfData.oid(user), name, PerfData.username(user), PerfData.email(user), passwordHash, "STUDENT"});
+            kanbanUsers.add(new Object[]{PerfData.oid(user), name, PerfData.username(user), PerfData.email(user)});
+        }
+        batchInsert(userJdbc, "INSERT INTO user_entities.users (oid, name, username, email, password, role) VALUES (?, ?, ?, ?, ?, ?)", sharedUsers);
+        batchInsert(kanbanJdbc, "INSERT INTO users (oid, name, username, email) VALUES (?, ?, ?, ?)", kanbanUsers);
+    }
+
+    private void seedBoards() {
+        List<Object[]> rows = new ArrayList<>(boards);
+        for (int board = 0; board < boards; board++) {
+            // One board in ten is public, to exercise anonymous reads
+            rows.add(new Object[]{PerfData.boardId(board), "Perf board " + board, PerfData.oid(board), board % 10 == 0 ? "PUBLIC" : "PRIVATE"});
+        }
+        batchInsert(kanbanJdbc, "INSERT INTO kanban_entities.board (boardId, name, oid, visibility) VALUES (?, ?, ?, ?)", rows);
+    }
+
+    private void seedStatusesAndTasks() {
+        List<Object[]> statuses = new ArrayList<>(boards * PerfData.STATUS_NAMES.length);
+        for (int board = 0; board < boards; board++) {
+            for (int status = 0; status < PerfData.STATUS_NAMES.length; status++) {
+                statuses.add(new Object[]{PerfData.statusId(board, status), PerfData.STATUS_NAMES[status], PerfData.boardId(board)});
+            }
+        }
+        batchInsert(kanbanJdbc, "INSERT INTO kanban_entities.statusv3 (statusId, statusName, boardId) VALUES (?, ?, ?)", statuses);
+
+        List<Object[]> tasks = new ArrayList<>(BATCH_SIZE);
+        for (int board = 0; board < boards; board++) {
+            for (int task = 0; task < tasksPerBoard; task++) {
+                tasks.add(new Object[]{PerfData.taskId(board, task, tasksPerBoard), "Task " + task + " of board " + board,
+                        "Synthetic task for load testing", "assignee " + task % 7,
+                        PerfData.statusId(board, task % PerfData.STATUS_NAMES.length), PerfData.boardId(board)});
+            }
+            if (tasks.size() >= BATCH_SIZE) {
+                insertTasks(tasks);
+                tasks.clear();
+            }
+        }
+        insertTasks(tasks);
+    }
+
+    private void insertTasks(List<Object[]> tasks) {
+        batchInsert(kanbanJdbc, "INSERT INTO kanban_entities.taskv3 (id, taskTitle, taskDescription, taskAssignees, taskStatusId, boardId) VALUES (?, ?, ?, ?, ?, ?)", tasks);
+    }
+
+    private void seedCollaborators() {
+        List<Object[]> rows = new ArrayList<>(boards * collaboratorsPerBoard);
+        for (int board = 0; board < boards; board++) {
+            for (int collaborator = 0; collaborator < collaboratorsPerBoard; collaborator++) {
+                int user = (board + collaborator + 1) % boards;
+                rows.add(new Object[]{PerfData.boardId(board), PerfData.oid(user), collaborator % 2 == 0 ? "WRITE" : "READ",
+                        "Perf User " + user, PerfData.email(user)});
+            }
+        }
+        batchInsert(kanbanJdbc, "INSERT INTO kanban_entities.board_collaborators (boardId, userId, accessLevel, name, email) VALUES (?, ?, ?, ?, ?)", rows);
+    }
+
+    // Same seeding rule as sprint6-attachments.sql, ids handed out by the application stay above the seeded rows
+    private void seedIdGenerator() {
+        kanbanJdbc.update("INSERT INTO kanban_entities.id_generator (entity, next_val) " +
+                "SELECT 'statusv3', COALESCE(MAX(statusId), 0) + 100 FROM kanban_entities.statusv3 UNION ALL " +
+                "SELECT 'taskv3', COALESCE(MAX(id), 0) + 100 FROM kanban_entities.taskv3 UNION ALL " +
+                "SELECT 'file_storage', COALESCE(MAX(id), 0) + 100 FROM kanban_entities.file_storage UNION ALL " +
+                "SELECT 'board_change', COALESCE(MAX(id), 0) + 100 FROM kanban_entities.board_change UNION ALL " +
+                "SELECT 'file_deletion', COALESCE(MAX(id), 0) + 100 FROM kanban_entities.file_deletion");
+    }
+
+    private static void batchInsert(JdbcTemplate jdbcTemplate, String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+    }
+}
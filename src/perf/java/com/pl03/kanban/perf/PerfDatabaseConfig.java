@@ -0,0 +1,34 @@
+package com.pl03.kanban.perf;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.DataSourceInitializer;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+
+// Creates the schemas of both embedded databases, the entity managers never generate DDL
+@Configuration
+@Profile("perf")
+public class PerfDatabaseConfig {
+
+    @Bean
+    public DataSourceInitializer kanbanDataSourceInitializer(@Qualifier("kanbanDataSource") DataSource kanbanDataSource) {
+        return initializer(kanbanDataSource, "perf/kanban-schema.sql");
+    }
+
+    @Bean
+    public DataSourceInitializer userDataSourceInitializer(@Qualifier("userDataSource") DataSource userDataSource) {
+        return initializer(userDataSource, "perf/user-schema.sql");
+    }
+
+    private static DataSourceInitializer initializer(DataSource dataSource, String script) {
+        DataSourceInitializer initializer = new DataSourceInitializer();
+        initializer.setDataSource(dataSource);
+        initializer.setDatabasePopulator(new ResourceDatabasePopulator(new ClassPathResource(script)));
+        return initializer;
+    }
+}
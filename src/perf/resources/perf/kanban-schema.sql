@@ -0,0 +1,125 @@
+-- Kanban schema of sprint6-attachments.sql for the embedded H2 database of the perf profile (MySQL mode).
+-- Hibernate resolves the schema attribute of the entities on H2, so kanban tables live in kanban_entities
+-- and the local users table in the default schema.
+
+CREATE SCHEMA IF NOT EXISTS kanban_entities;
+
+CREATE TABLE IF NOT EXISTS users (
+    oid CHAR(36) NOT NULL,
+    name VARCHAR(100) NOT NULL,
+    username VARCHAR(50) NOT NULL,
+    email VARCHAR(50) NOT NULL,
+    created_on TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_on TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (oid),
+    CONSTRAINT UC_username UNIQUE (username),
+    CONSTRAINT UC_email UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS kanban_entities.board (
+    boardId VARCHAR(10) NOT NULL,
+    name VARCHAR(120) NOT NULL,
+    oid VARCHAR(36) NOT NULL,
+    visibility ENUM('PUBLIC', 'PRIVATE') NOT NULL DEFAULT 'PRIVATE',
+    createdOn TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updatedOn TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    changeVersion BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (boardId),
+    CONSTRAINT fk_board_user FOREIGN KEY (oid) REFERENCES public.users (oid)
+);
+CREATE INDEX IF NOT EXISTS idx_board_created ON kanban_entities.board (createdOn, boardId);
+
+CREATE TABLE IF NOT EXISTS kanban_entities.board_collaborators (
+    boardId VARCHAR(10) NOT NULL,
+    userId CHAR(36) NOT NULL,
+    accessLevel ENUM('READ', 'WRITE', 'PENDING') NOT NULL,
+    addedOn TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    name VARCHAR(100) NOT NULL,
+    email VARCHAR(50) NOT NULL,
+    PRIMARY KEY (boardId, userId),
+    CONSTRAINT fk_collaborator_board FOREIGN KEY (boardId) REFERENCES kanban_entities.board (boardId),
+    CONSTRAINT fk_collaborator_user FOREIGN KEY (userId) REFERENCES public.users (oid)
+);
+CREATE INDEX IF NOT EXISTS fk_collaborator_user ON kanban_entities.board_collaborators (userId);
+
+CREATE TABLE IF NOT EXISTS kanban_entities.statusv3 (
+    statusId INT NOT NULL AUTO_INCREMENT,
+    statusName VARCHAR(50) NOT NULL,
+    statusDescription VARCHAR(200) NULL DEFAULT NULL,
+    boardId VARCHAR(10) NOT NULL,
+    createdOn TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updatedOn TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (statusId),
+    CONSTRAINT fk_statusv3_board1 FOREIGN KEY (boardId) REFERENCES kanban_entities.board (boardId)
+);
+CREATE INDEX IF NOT EXISTS idx_statusv3_board_name ON kanban_entities.statusv3 (boardId, statusName);
+
+CREATE TABLE IF NOT EXISTS kanban_entities.taskv3 (
+    id INT NOT NULL AUTO_INCREMENT,
+    taskTitle VARCHAR(100) NOT NULL,
+    taskDescription VARCHAR(500) NULL DEFAULT NULL,
+    taskAssignees VARCHAR(30) NULL DEFAULT NULL,
+    taskStatusId INT NOT NULL DEFAULT 1,
+    createdOn TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updatedOn TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    boardId VARCHAR(10) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_taskv3_board1 FOREIGN KEY (boardId) REFERENCES kanban_entities.board (boardId),
+    CONSTRAINT fk_taskv3_taskStatus FOREIGN KEY (taskStatusId) REFERENCES kanban_entities.statusv3 (statusId)
+);
+CREATE INDEX IF NOT EXISTS fk_taskv3_taskStatus_idx ON kanban_entities.taskv3 (taskStatusId);
+CREATE INDEX IF NOT EXISTS idx_taskv3_board_status ON kanban_entities.taskv3 (boardId, taskStatusId);
+
+CREATE TABLE IF NOT EXISTS kanban_entities.file_storage (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255) NOT NULL,
+    type VARCHAR(100) NOT NULL,
+    path VARCHAR(500) NOT NULL,
+    content_hash CHAR(64) NULL DEFAULT NULL,
+    added_on TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    task_id INT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_file_storage_task FOREIGN KEY (task_id) REFERENCES kanban_entities.taskv3 (id)
+);
+CREATE INDEX IF NOT EXISTS fk_file_storage_task ON kanban_entities.file_storage (task_id);
+
+CREATE TABLE IF NOT EXISTS kanban_entities.file_blob (
+    hash CHAR(64) NOT NULL,
+    size BIGINT NOT NULL,
+    ref_count INT NOT NULL DEFAULT 0,
+    created_on TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_on TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (hash)
+);
+CREATE INDEX IF NOT EXISTS idx_file_blob_unreferenced ON kanban_entities.file_blob (ref_count, updated_on);
+
+CREATE TABLE IF NOT EXISTS kanban_entities.file_deletion (
+    id BIGINT NOT NULL,
+    path VARCHAR(500) NULL DEFAULT NULL,
+    content_hash CHAR(64) NULL DEFAULT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error VARCHAR(500) NULL DEFAULT NULL,
+    created_on TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id)
+);
+CREATE INDEX IF NOT EXISTS idx_file_deletion_due ON kanban_entities.file_deletion (next_attempt_at);
+
+CREATE TABLE IF NOT EXISTS kanban_entities.board_change (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    boardId VARCHAR(10) NOT NULL,
+    version BIGINT NOT NULL,
+    entityType ENUM('TASK', 'STATUS') NOT NULL,
+    entityId INT NOT NULL,
+    deleted TINYINT(1) NOT NULL DEFAULT 0,
+    changedOn TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_board_change_board FOREIGN KEY (boardId) REFERENCES kanban_entities.board (boardId)
+);
+CREATE INDEX IF NOT EXISTS idx_board_change_version ON kanban_entities.board_change (boardId, version);
+
+CREATE TABLE IF NOT EXISTS kanban_entities.id_generator (
+    entity VARCHAR(50) NOT NULL,
+    next_val BIGINT NULL DEFAULT NULL,
+    PRIMARY KEY (entity)
+);
@@ -0,0 +1,14 @@
+-- Shared user database (itbkk_shared) for the embedded H2 database of the perf profile
+
+CREATE SCHEMA IF NOT EXISTS user_entities;
+
+CREATE TABLE IF NOT EXISTS user_entities.users (
+    oid CHAR(36) NOT NULL,
+    name VARCHAR(100) NOT NULL,
+    username VARCHAR(50) NOT NULL,
+    email VARCHAR(50) NOT NULL,
+    password VARCHAR(100) NOT NULL,
+    role CLOB NOT NULL,
+    PRIMARY KEY (oid),
+    CONSTRAINT UC_shared_username UNIQUE (username)
+);
@@ -0,0 +1,34 @@
+package com.pl03.kanban.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ContentDisposition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileAttachmentControllerTest {
+
+    @Test
+    void quotesAPlainName() {
+        assertThat(FileAttachmentController.contentDisposition(ContentDisposition.attachment(), "report.pdf"))
+                .isEqualTo("attachment; filename=\"report.pdf\"");
+    }
+
+    @Test
+    void escapesQuotesSoTheNameCanNotAddParameters() {
+        assertThat(FileAttachmentController.contentDisposition(ContentDisposition.inline(), "a\"; filename=\"evil.exe"))
+                .isEqualTo("inline; filename=\"a\\\"; filename=\\\"evil.exe\"");
+    }
+
+    @Test
+    void encodesNonAsciiNames() {
+        assertThat(FileAttachmentController.contentDisposition(ContentDisposition.attachment(), "ไทย.txt"))
+                .endsWith("; filename*=UTF-8''%E0%B9%84%E0%B8%97%E0%B8%A2.txt");
+    }
+
+    @Test
+    void encodesLineBreaks() {
+        assertThat(FileAttachmentController.contentDisposition(ContentDisposition.attachment(), "a\r\nSet-Cookie: b.txt"))
+                .doesNotContain("\r", "\n")
+                .endsWith("; filename*=UTF-8''a%0D%0ASet-Cookie%3A%20b.txt");
+    }
+}
@@ -0,0 +1,69 @@
+package com.pl03.kanban.services.impl;
+
+import com.pl03.kanban.kanban_entities.StatusV3;
+import com.pl03.kanban.kanban_entities.repositories.StatusV3Repository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StatusCatalogTest {
+
+    private static final String BOARD_ID = "board00001";
+
+    private StatusV3Repository statusV3Repository;
+    private StatusCatalog statusCatalog;
+
+    @BeforeEach
+    void setUp() {
+        statusV3Repository = mock(StatusV3Repository.class);
+        statusCatalog = new StatusCatalog(statusV3Repository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+    }
+
+    @AfterEach
+    void clearTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void cachesALoadMadeOutsideATransaction() {
+        when(statusV3Repository.findByBoardId(BOARD_ID)).thenReturn(List.of(status(1, "No Status")));
+
+        assertThat(statusCatalog.findById(BOARD_ID, 1)).isPresent();
+        assertThat(statusCatalog.findByName(BOARD_ID, "no status")).isPresent();
+
+        verify(statusV3Repository, times(1)).findByBoardId(BOARD_ID);
+    }
+
+    @Test
+    void doesNotCacheALoadMadeInsideATransaction() {
+        // The transaction's snapshot still has the status another transaction already deleted
+        when(statusV3Repository.findByBoardId(BOARD_ID))
+                .thenReturn(List.of(status(1, "No Status"), status(2, "Deleted")))
+                .thenReturn(List.of(status(1, "No Status")));
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        assertThat(statusCatalog.findById(BOARD_ID, 2)).isPresent();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+
+        assertThat(statusCatalog.findById(BOARD_ID, 2)).isEmpty();
+        verify(statusV3Repository, times(2)).findByBoardId(BOARD_ID);
+    }
+
+    private static StatusV3 status(int id, String name) {
+        StatusV3 statusV3 = new StatusV3();
+        statusV3.setId(id);
+        statusV3.setName(name);
+        return statusV3;
+    }
+}
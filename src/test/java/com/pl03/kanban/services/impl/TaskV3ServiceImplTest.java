@@ -0,0 +1,167 @@
+package com.pl03.kanban.services.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pl03.kanban.dtos.AddEditTaskDtoWithAttachments;
+import com.pl03.kanban.dtos.AttachmentManifest;
+import com.pl03.kanban.kanban_entities.Board;
+import com.pl03.kanban.kanban_entities.FileStorage;
+import com.pl03.kanban.kanban_entities.StatusV3;
+import com.pl03.kanban.kanban_entities.TaskV3;
+import com.pl03.kanban.kanban_entities.repositories.BoardRepository;
+import com.pl03.kanban.kanban_entities.repositories.FileStorageRepository;
+import com.pl03.kanban.kanban_entities.repositories.StatusV3Repository;
+import com.pl03.kanban.kanban_entities.repositories.TaskV3Repository;
+import com.pl03.kanban.mappers.TaskMapper;
+import com.pl03.kanban.services.BoardChangeService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TaskV3ServiceImplTest {
+
+    private static final String BOARD_ID = "board00001";
+    private static final String HASH_A = "a".repeat(64);
+    private static final String HASH_B = "b".repeat(64);
+
+    @Test
+    void diffManifestKeepsFilesWithTheSameNameAndContent() {
+        TaskV3ServiceImpl.ManifestDiff diff = TaskV3ServiceImpl.diffManifest(
+                List.of(file("a.pdf", HASH_A), file("b.pdf", HASH_B)),
+                List.of(entry("a.pdf", HASH_A), entry("b.pdf", HASH_B)));
+
+        assertThat(diff.unchanged()).containsExactlyInAnyOrder("a.pdf", "b.pdf");
+        assertThat(diff.filesToDelete()).isEmpty();
+        assertThat(diff.filesToAdd()).isEmpty();
+    }
+
+    @Test
+    void diffManifestReplacesChangedContentAndDropsUnlistedFiles() {
+        TaskV3ServiceImpl.ManifestDiff diff = TaskV3ServiceImpl.diffManifest(
+                List.of(file("a.pdf", HASH_A), file("b.pdf", HASH_B)),
+                List.of(entry("a.pdf", HASH_B)));
+
+        assertThat(diff.unchanged()).isEmpty();
+        assertThat(diff.filesToDelete()).containsExactlyInAnyOrder("a.pdf", "b.pdf");
+        assertThat(names(diff.filesToAdd())).containsExactly("a.pdf");
+    }
+
+    @Test
+    void diffManifestTreatsARenameAsDeleteAndAdd() {
+        TaskV3ServiceImpl.ManifestDiff diff = TaskV3ServiceImpl.diffManifest(
+                List.of(file("a.pdf", HASH_A)),
+                List.of(entry("renamed.pdf", HASH_A)));
+
+        assertThat(diff.filesToDelete()).containsExactly("a.pdf");
+        assertThat(names(diff.filesToAdd())).containsExactly("renamed.pdf");
+        assertThat(diff.unchanged()).isEmpty();
+    }
+
+    @Test
+    void diffManifestReplacesFilesStoredWithoutHash() {
+        TaskV3ServiceImpl.ManifestDiff diff = TaskV3ServiceImpl.diffManifest(
+                List.of(file("legacy.pdf", null)),
+                List.of(entry("legacy.pdf", HASH_A)));
+
+        assertThat(diff.filesToDelete()).containsExactly("legacy.pdf");
+        assertThat(names(diff.filesToAdd())).containsExactly("legacy.pdf");
+    }
+
+    @Test
+    void applyAttachmentManifestRenamesWithoutUpload() {
+        TaskV3 task = new TaskV3();
+        task.setId(1);
+        task.setBoard(Board.builder().id(BOARD_ID).build());
+        StatusV3 statusV3 = new StatusV3();
+        statusV3.setName("No Status");
+        task.setStatusV3(statusV3);
+        FileStorage stored = file("a.pdf", HASH_A);
+        stored.setTask(task);
+        task.getFiles().add(stored);
+
+        // The renamed file is the board's only one with its content. Like Hibernate's AUTO flush, the hash
+        // query stops finding it once the row is deleted.
+        List<FileStorage> boardFiles = new ArrayList<>(task.getFiles());
+        FileStorageRepository fileStorageRepository = mock(FileStorageRepository.class);
+        when(fileStorageRepository.findContentHashesInBoard(eq(BOARD_ID), anyCollection())).thenAnswer(invocation -> {
+            Set<String> hashes = new HashSet<>(invocation.getArgument(1));
+            return boardFiles.stream().map(FileStorage::getContentHash).filter(hashes::contains).collect(Collectors.toSet());
+        });
+        doAnswer(invocation -> boardFiles.remove(invocation.<FileStorage>getArgument(0)))
+                .when(fileStorageRepository).delete(any(FileStorage.class));
+
+        AttachmentBlobStore attachmentBlobStore = mock(AttachmentBlobStore.class);
+        Path blobPath = Path.of("task-attachments", "blobs", "aa", HASH_A);
+        when(attachmentBlobStore.addReference(HASH_A)).thenReturn(Optional.of(blobPath));
+        FileDeletionOutbox fileDeletionOutbox = mock(FileDeletionOutbox.class);
+
+        FileStorageServiceImpl fileStorageService = spy(new FileStorageServiceImpl(fileStorageRepository,
+                mock(TaskV3Repository.class), attachmentBlobStore, fileDeletionOutbox, true, new ObjectMapper()));
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        Map<String, AttachmentBlobStore.TempBlob> noContents = new HashMap<>();
+        doReturn(new FileStorageServiceImpl.ManifestUpload(
+                new AttachmentManifest(List.of(entry("renamed.pdf", HASH_A))), noContents))
+                .when(fileStorageService).storeManifestUpload(request);
+
+        TaskV3Repository taskV3Repository = mock(TaskV3Repository.class);
+        when(taskV3Repository.findByIdAndBoardIdWithFiles(1, BOARD_ID)).thenReturn(Optional.of(task));
+        BoardAccessCache boardAccessCache = mock(BoardAccessCache.class);
+        when(boardAccessCache.getEffectiveRight(anyString(), anyString())).thenReturn(BoardAccessCache.EffectiveRight.OWNER);
+        TaskMapper taskMapper = mock(TaskMapper.class);
+        when(taskMapper.toAddEditTaskDtoWithAttachments(any(), any())).thenReturn(new AddEditTaskDtoWithAttachments());
+
+        TaskV3ServiceImpl taskV3Service = new TaskV3ServiceImpl(taskV3Repository, mock(StatusV3Repository.class),
+                boardAccessCache, new ModelMapper(), mock(BoardRepository.class), fileStorageService, new ObjectMapper(),
+                mock(PlatformTransactionManager.class), mock(BoardChangeService.class), mock(StatusCatalog.class), taskMapper);
+
+        taskV3Service.applyAttachmentManifest(BOARD_ID, 1, request, "owner");
+
+        assertThat(task.getFiles()).extracting(FileStorage::getName).containsExactly("renamed.pdf");
+        assertThat(task.getFiles()).extracting(FileStorage::getContentHash).containsExactly(HASH_A);
+        assertThat(task.getFiles()).extracting(FileStorage::getPath).containsExactly(blobPath.toString());
+        verify(fileStorageRepository).delete(stored);
+        // The reference taken for the new name keeps the blob, nothing is queued for deletion
+        verify(attachmentBlobStore).removeReference(HASH_A);
+        verify(fileDeletionOutbox, never()).enqueueBlob(anyString());
+    }
+
+    private static FileStorage file(String name, String hash) {
+        FileStorage file = new FileStorage();
+        file.setName(name);
+        file.setType("application/pdf");
+        file.setPath("task-attachments/" + name);
+        file.setContentHash(hash);
+        return file;
+    }
+
+    private static AttachmentManifest.Entry entry(String name, String hash) {
+        return new AttachmentManifest.Entry(name, hash);
+    }
+
+    private static List<String> names(List<AttachmentManifest.Entry> entries) {
+        return entries.stream().map(AttachmentManifest.Entry::getName).collect(Collectors.toList());
+    }
+}
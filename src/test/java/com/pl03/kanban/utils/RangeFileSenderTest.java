@@ -0,0 +1,204 @@
+package com.pl03.kanban.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RangeFileSenderTest {
+
+    private static final String CONTENT = "0123456789abcdefghijklmnopqrstuvwxyz";
+    private static final Instant LAST_MODIFIED = Instant.parse("2024-05-01T10:00:00Z");
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+
+    @BeforeEach
+    void writeFile() throws IOException {
+        file = Files.writeString(dir.resolve("file.txt"), CONTENT);
+        Files.setLastModifiedTime(file, FileTime.from(LAST_MODIFIED));
+    }
+
+    @Test
+    void sendsTheWholeFileWithoutRange() throws IOException {
+        MockHttpServletResponse response = send(get());
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+        assertThat(response.getContentLengthLong()).isEqualTo(CONTENT.length());
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void sendsASingleRange() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=10-15");
+        MockHttpServletResponse response = send(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 10-15/36");
+        assertThat(response.getContentAsString()).isEqualTo("abcdef");
+    }
+
+    @Test
+    void sendsSuffixAndOpenEndedRanges() throws IOException {
+        MockHttpServletRequest suffix = get();
+        suffix.addHeader(HttpHeaders.RANGE, "bytes=-4");
+        assertThat(send(suffix).getContentAsString()).isEqualTo("wxyz");
+
+        MockHttpServletRequest openEnded = get();
+        openEnded.addHeader(HttpHeaders.RANGE, "bytes=30-");
+        MockHttpServletResponse response = send(openEnded);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 30-35/36");
+        assertThat(response.getContentAsString()).isEqualTo("uvwxyz");
+    }
+
+    @Test
+    void sendsSeveralRangesAsMultipart() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-1,10-11");
+        MockHttpServletResponse response = send(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentType()).startsWith("multipart/byteranges; boundary=");
+        String body = response.getContentAsString();
+        assertThat(body).contains("Content-Range: bytes 0-1/36\r\n\r\n01\r\n");
+        assertThat(body).contains("Content-Range: bytes 10-11/36\r\n\r\nab\r\n");
+        assertThat(response.getContentLengthLong()).isEqualTo(body.getBytes(StandardCharsets.US_ASCII).length);
+    }
+
+    @Test
+    void refusesUnsatisfiableRanges() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=100-200");
+        MockHttpServletResponse response = send(request);
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */36");
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void refusesOverlappingRanges() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-9,5-14");
+        assertThat(send(request).getStatus()).isEqualTo(416);
+    }
+
+    @Test
+    void refusesTheSameRangeRepeated() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=" + String.join(",", Collections.nCopies(100, "0-")));
+        MockHttpServletResponse response = send(request);
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void ignoresAMalformedRange() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "lines=1-2");
+        MockHttpServletResponse response = send(request);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void ifRangeWithTheCurrentEtagSendsTheRange() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-3");
+        request.addHeader(HttpHeaders.IF_RANGE, etag());
+        MockHttpServletResponse response = send(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentAsString()).isEqualTo("0123");
+    }
+
+    @Test
+    void ifRangeWithAnotherEtagSendsTheWholeFile() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-3");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"other\"");
+        MockHttpServletResponse response = send(request);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void ifRangeWithAWeakEtagSendsTheWholeFile() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-3");
+        request.addHeader(HttpHeaders.IF_RANGE, "W/" + etag());
+
+        assertThat(send(request).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void ifRangeWithADateComparesTheLastModifiedTime() throws IOException {
+        MockHttpServletRequest current = get();
+        current.addHeader(HttpHeaders.RANGE, "bytes=0-3");
+        current.addHeader(HttpHeaders.IF_RANGE, httpDate(LAST_MODIFIED));
+        assertThat(send(current).getStatus()).isEqualTo(206);
+
+        MockHttpServletRequest older = get();
+        older.addHeader(HttpHeaders.RANGE, "bytes=0-3");
+        older.addHeader(HttpHeaders.IF_RANGE, httpDate(LAST_MODIFIED.minusSeconds(60)));
+        assertThat(send(older).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void headSendsHeadersWithoutBody() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("HEAD", "/file.txt");
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-3");
+        MockHttpServletResponse response = send(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentLengthLong()).isEqualTo(4);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void answersNotModifiedForAMatchingEtag() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag());
+
+        assertThat(send(request).getStatus()).isEqualTo(304);
+    }
+
+    private String etag() throws IOException {
+        return send(get()).getHeader(HttpHeaders.ETAG);
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RangeFileSender.send(request, response, file, "text/plain", "inline; filename=\"file.txt\"");
+        return response;
+    }
+
+    private static MockHttpServletRequest get() {
+        return new MockHttpServletRequest("GET", "/file.txt");
+    }
+
+    private static String httpDate(Instant instant) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(instant.atZone(ZoneOffset.UTC));
+    }
+}